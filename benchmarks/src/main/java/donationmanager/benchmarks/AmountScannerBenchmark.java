@@ -0,0 +1,62 @@
+package donationmanager.benchmarks;
+
+import donationmanager.AmountScanner;
+import donationmanager.SyntheticDataGenerator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import technology.tabula.RectangularTextContainer;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Measures how long it takes to find and read the amounts in the text fields of a statement, with the amount scanner
+ * and with the regular expression TransactionManager used before, which was compiled on every call and followed by
+ * another regular expression to remove the digit group separators.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AmountScannerBenchmark {
+    private static final int ROWS = 1000;
+
+    private final AmountScanner amountScanner = new AmountScanner();
+    private String[] texts;
+
+    @Setup
+    public void makeTexts() {
+        SyntheticDataGenerator generator = new SyntheticDataGenerator();
+        generator.setGroupedEntryRate(0.5);
+        List<List<RectangularTextContainer>> table = generator.makeTable(ROWS);
+
+        this.texts = new String[ROWS];
+        for (int i = 0; i < ROWS; i++) {
+            this.texts[i] = table.get(i).get(1).getText();
+        }
+    }
+
+    @Benchmark
+    public void scanner(Blackhole blackhole) {
+        for (String text : this.texts) {
+            if (this.amountScanner.find(text)) {
+                blackhole.consume(this.amountScanner.getCents());
+            }
+        }
+    }
+
+    @Benchmark
+    public void regex(Blackhole blackhole) {
+        for (String text : this.texts) {
+            Pattern pattern = Pattern.compile("(^|\\s)(\\d|')+\\.\\d\\d($|\\s)");
+            Matcher matcher = pattern.matcher(text);
+            if (matcher.find()) {
+                blackhole.consume(Double.parseDouble(matcher.group().replaceAll("'", "")));
+            }
+        }
+    }
+}
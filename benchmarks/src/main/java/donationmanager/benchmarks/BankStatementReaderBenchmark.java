@@ -0,0 +1,58 @@
+package donationmanager.benchmarks;
+
+import donationmanager.BankStatementReader;
+import donationmanager.ExtractionEngine;
+import donationmanager.SyntheticDataGenerator;
+import org.openjdk.jmh.annotations.*;
+import technology.tabula.RectangularTextContainer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long it takes to extract the table out of a bank statement, with both extraction engines.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BankStatementReaderBenchmark {
+    @Param({"1", "10", "50"})
+    private int pages;
+
+    @Param({"TABULA", "TEXT_LAYER"})
+    private ExtractionEngine engine;
+
+    private File bankStatement;
+    private PrintStream standardOutput;
+
+    @Setup
+    public void writeBankStatement() throws IOException {
+        this.bankStatement = Files.createTempFile("bank-statement", ".pdf").toFile();
+        new SyntheticDataGenerator().writeStatement(this.bankStatement, this.pages);
+
+        // extractTable prints the whole table, which would otherwise be measured as well
+        this.standardOutput = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown
+    public void deleteBankStatement() {
+        System.setOut(this.standardOutput);
+        this.bankStatement.delete();
+    }
+
+    @Benchmark
+    public List<List<RectangularTextContainer>> extractTable() throws IOException {
+        BankStatementReader bankStatementReader = new BankStatementReader(this.bankStatement);
+        bankStatementReader.setEngine(this.engine);
+        return bankStatementReader.extractTable();
+    }
+}
@@ -0,0 +1,82 @@
+package donationmanager.benchmarks;
+
+import donationmanager.DialogueBox;
+import donationmanager.DonationListMaker;
+import donationmanager.SyntheticDataGenerator;
+import donationmanager.Transaction;
+import org.openjdk.jmh.annotations.*;
+
+import javax.swing.*;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long it takes to match the donors of a bank statement against the list of all known donors and write
+ * the donation list. Loading the list of all known donors is not part of the measurement.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@State(Scope.Benchmark)
+public class DonationListMakerBenchmark {
+    private static final int TRANSACTIONS = 20;
+    // Half of the names need fuzzy matching, and some donors have more than one row
+    private static final double NAME_NOISE = 0.5;
+    private static final double DUPLICATE_RATE = 0.05;
+
+    @Param({"1000", "10000", "100000"})
+    private int donors;
+
+    private File allDonorsExcel;
+    private File outputExcel;
+    private List<Transaction> transactions;
+    private DonationListMaker donationListMaker;
+
+    @Setup(Level.Trial)
+    public void writeAllDonorsExcel() throws IOException {
+        this.allDonorsExcel = Files.createTempFile("all-donors", ".xlsx").toFile();
+        this.outputExcel = Files.createTempFile("donation-list", ".xlsx").toFile();
+
+        SyntheticDataGenerator generator = new SyntheticDataGenerator();
+        generator.setDonors(this.donors);
+        generator.setNameNoise(NAME_NOISE);
+        generator.setDuplicateRate(DUPLICATE_RATE);
+
+        generator.writeDonorWorkbook(this.allDonorsExcel);
+        this.transactions = generator.makeCreditTransactions(TRANSACTIONS);
+    }
+
+    @Setup(Level.Invocation)
+    public void loadAllDonorsExcel() {
+        this.donationListMaker = new DonationListMaker(this.allDonorsExcel,
+                                                       this.transactions,
+                                                       this.outputExcel,
+                                                       new RejectingDialogueBox());
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFiles() {
+        this.allDonorsExcel.delete();
+        this.outputExcel.delete();
+    }
+
+    @Benchmark
+    public void makeDonationList() throws IOException {
+        this.donationListMaker.makeDonationList();
+    }
+
+    /**
+     * Answers every name comparison with no, so fuzzy matches are measured without anybody clicking through them.
+     */
+    private static class RejectingDialogueBox extends DialogueBox {
+        @Override
+        public int showNameComparisonDialogue(String firstName, String secondName) {
+            return JOptionPane.NO_OPTION;
+        }
+    }
+}
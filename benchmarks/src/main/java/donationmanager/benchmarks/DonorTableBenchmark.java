@@ -0,0 +1,71 @@
+package donationmanager.benchmarks;
+
+import donationmanager.DonorIndex;
+import donationmanager.DonorSnapshot;
+import donationmanager.DonorTable;
+import donationmanager.SyntheticDataGenerator;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long it takes to load the list of all known donors and index it, by building the whole workbook first
+ * by reading the sheet as a stream of XML events into a DonorTable, and by reading an up to date DonorSnapshot of it.
+ * Run with -prof gc to compare the allocations.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@State(Scope.Benchmark)
+public class DonorTableBenchmark {
+    @Param({"10000", "100000"})
+    private int donors;
+
+    private File allDonorsExcel;
+    private File snapshotDirectory;
+
+    @Setup(Level.Trial)
+    public void writeAllDonorsExcel() throws IOException {
+        this.allDonorsExcel = Files.createTempFile("all-donors", ".xlsx").toFile();
+
+        SyntheticDataGenerator generator = new SyntheticDataGenerator();
+        generator.setDonors(this.donors);
+        generator.writeDonorWorkbook(this.allDonorsExcel);
+
+        this.snapshotDirectory = Files.createTempDirectory("donors").toFile();
+        new DonorSnapshot(this.snapshotDirectory).load(this.allDonorsExcel);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteAllDonorsExcel() {
+        this.allDonorsExcel.delete();
+        for (File file : this.snapshotDirectory.listFiles()) {
+            file.delete();
+        }
+        this.snapshotDirectory.delete();
+    }
+
+    @Benchmark
+    public DonorIndex loadWorkbook() throws IOException {
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new FileInputStream(this.allDonorsExcel))) {
+            return DonorIndex.of(workbook.getSheet(DonorTable.DONORS_SHEET_NAME));
+        }
+    }
+
+    @Benchmark
+    public DonorIndex loadDonorTable() throws IOException {
+        return DonorIndex.of(DonorTable.load(this.allDonorsExcel));
+    }
+
+    @Benchmark
+    public DonorIndex loadSnapshot() throws IOException {
+        return new DonorSnapshot(this.snapshotDirectory).load(this.allDonorsExcel);
+    }
+}
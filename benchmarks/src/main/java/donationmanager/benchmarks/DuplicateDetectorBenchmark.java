@@ -0,0 +1,72 @@
+package donationmanager.benchmarks;
+
+import donationmanager.DuplicateDetector;
+import donationmanager.SyntheticDataGenerator;
+import donationmanager.TransactionBatch;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long it takes to check the transactions of a new bank statement against the index of all transactions
+ * imported before. Like a statement that overlaps with the previous one, half of the transactions were imported
+ * before and half of them are new. Every invocation starts from the saved index, so the new transactions are still new.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DuplicateDetectorBenchmark {
+    private static final int TRANSACTIONS = 1000;
+
+    @Param({"10000", "50000"})
+    private int historicTransactions;
+
+    private File indexFile;
+    private DuplicateDetector duplicateDetector;
+    private TransactionBatch transactions;
+
+    @Setup(Level.Trial)
+    public void writeIndex() throws IOException {
+        this.indexFile = Files.createTempFile("transactions", ".index").toFile();
+        TransactionBatch historicTransactions = makeTransactions(this.historicTransactions, 1);
+        DuplicateDetector duplicateDetector = new DuplicateDetector(this.indexFile);
+        duplicateDetector.removeDuplicates(historicTransactions);
+        duplicateDetector.save();
+
+        TransactionBatch newTransactions = makeTransactions(TRANSACTIONS / 2, 2);
+        this.transactions = new TransactionBatch();
+        for (int i = 0; i < TRANSACTIONS / 2; i++) {
+            this.transactions.add(historicTransactions, historicTransactions.size() - TRANSACTIONS / 2 + i);
+        }
+        for (int i = 0; i < newTransactions.size(); i++) {
+            this.transactions.add(newTransactions, i);
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void loadIndex() {
+        this.duplicateDetector = DuplicateDetector.load(this.indexFile);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteIndex() {
+        this.indexFile.delete();
+    }
+
+    @Benchmark
+    public TransactionBatch removeDuplicates() {
+        return this.duplicateDetector.removeDuplicates(this.transactions);
+    }
+
+    private static TransactionBatch makeTransactions(int transactions, long seed) {
+        SyntheticDataGenerator generator = new SyntheticDataGenerator();
+        generator.setSeed(seed);
+        return TransactionBatch.of(generator.makeCreditTransactions(transactions));
+    }
+}
@@ -0,0 +1,94 @@
+package donationmanager.benchmarks;
+
+import donationmanager.DonorIndex;
+import donationmanager.SyntheticDataGenerator;
+import donationmanager.TokenSortMatcher;
+import donationmanager.Transaction;
+import me.xdrop.fuzzywuzzy.FuzzySearch;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long it takes to find the fuzzy matches scoring above 70 for the names of a bank statement, by scoring
+ * every known donor, by scoring only the candidates found by the donor index, and by scoring those with a
+ * TokenSortMatcher that gives up on candidates that can't reach the minimum score.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@State(Scope.Benchmark)
+public class FuzzyMatchBenchmark {
+    private static final int NAMES = 20;
+    private static final int MINIMUM_SCORE = 71;
+
+    @Param({"10000", "100000"})
+    private int donors;
+
+    private DonorIndex donorIndex;
+    private String[] names;
+
+    @Setup
+    public void makeDonorIndex() throws IOException {
+        SyntheticDataGenerator generator = new SyntheticDataGenerator();
+        generator.setDonors(this.donors);
+        generator.setNameNoise(1);
+
+        try (Workbook workbook = new XSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet();
+            sheet.createRow(0).createCell(3).setCellValue("Name");
+            for (int i = 1; i <= this.donors; i++) {
+                sheet.createRow(i).createCell(3).setCellValue(generator.makeName(i - 1));
+            }
+            this.donorIndex = DonorIndex.of(sheet);
+        }
+
+        List<Transaction> transactions = generator.makeCreditTransactions(NAMES);
+        this.names = new String[NAMES];
+        for (int i = 0; i < NAMES; i++) {
+            this.names[i] = transactions.get(i).getName();
+        }
+    }
+
+    @Benchmark
+    public void exhaustiveScan(Blackhole blackhole) {
+        for (String name : this.names) {
+            for (int i = 1; i < this.donorIndex.getEndRowNumber(); i++) {
+                if (FuzzySearch.tokenSortRatio(name, this.donorIndex.getName(i)) >= MINIMUM_SCORE) {
+                    blackhole.consume(i);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void candidateScan(Blackhole blackhole) {
+        for (String name : this.names) {
+            for (int i : this.donorIndex.findFuzzyCandidates(name, MINIMUM_SCORE)) {
+                if (FuzzySearch.tokenSortRatio(name, this.donorIndex.getName(i)) >= MINIMUM_SCORE) {
+                    blackhole.consume(i);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void matcherScan(Blackhole blackhole) {
+        for (String name : this.names) {
+            TokenSortMatcher matcher = new TokenSortMatcher(name);
+            for (int i : this.donorIndex.findFuzzyCandidates(name, MINIMUM_SCORE)) {
+                if (matcher.score(this.donorIndex.getTokenSortedForm(i), MINIMUM_SCORE) >= 0) {
+                    blackhole.consume(i);
+                }
+            }
+        }
+    }
+}
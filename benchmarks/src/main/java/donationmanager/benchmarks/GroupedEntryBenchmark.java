@@ -0,0 +1,41 @@
+package donationmanager.benchmarks;
+
+import donationmanager.StatementTable;
+import donationmanager.SyntheticDataGenerator;
+import donationmanager.Transaction;
+import donationmanager.TransactionManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long it takes to turn a single grouped entry into transactions, as the entry grows. Each transaction of
+ * the entry takes up two rows, so the table has twice as many rows as the entry has transactions, plus its header.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GroupedEntryBenchmark {
+    @Param({"1000", "4000", "16000"})
+    private int transactions;
+
+    private StatementTable table;
+
+    @Setup
+    public void makeTable() {
+        SyntheticDataGenerator generator = new SyntheticDataGenerator();
+        generator.setGroupedEntryRate(1);
+        generator.setMinGroupedTransactions(this.transactions);
+        generator.setMaxGroupedTransactions(this.transactions);
+        this.table = StatementTable.of(generator.makeTable(2 * this.transactions + 1));
+    }
+
+    @Benchmark
+    public List<Transaction> makeTransactionList() {
+        return new TransactionManager(this.table).makeTransactionList();
+    }
+}
@@ -0,0 +1,41 @@
+package donationmanager.benchmarks;
+
+import donationmanager.StatementTable;
+import donationmanager.SyntheticDataGenerator;
+import donationmanager.TransactionBatch;
+import donationmanager.TransactionManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long it takes to turn an extracted table into transactions, on the calling thread and split into
+ * chunks read concurrently.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TransactionManagerBenchmark {
+    @Param({"1000", "10000", "100000"})
+    private int rows;
+
+    @Param({"1", "4"})
+    private int parallelism;
+
+    private StatementTable table;
+
+    @Setup
+    public void makeTable() {
+        this.table = StatementTable.of(new SyntheticDataGenerator().makeTable(this.rows));
+    }
+
+    @Benchmark
+    public TransactionBatch makeTransactionBatch() {
+        TransactionManager transactionManager = new TransactionManager(this.table);
+        transactionManager.setParallelism(this.parallelism);
+        return transactionManager.makeTransactionBatch();
+    }
+}
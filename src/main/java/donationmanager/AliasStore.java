@@ -0,0 +1,218 @@
+package donationmanager;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.io.UTFDataFormatException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * A persistent memory of the decisions the user made on fuzzy matches: which names on the bank statements were
+ * confirmed to be which donors, and which were rejected. The donors are identified by their code, not by their row,
+ * so the decisions still hold after rows have been added to, moved within, or removed from the list of all known
+ * donors.
+ * <p>
+ * On disk, the decisions form an append-only log, where every decision is written as soon as it is made, so that no
+ * decision is lost if the program is stopped halfway through a bank statement. A later decision on the same name and
+ * donor replaces an earlier one. When loading, the log is read into hash maps, and a last decision that was only
+ * partly written is cut off.
+ */
+public class AliasStore {
+    private static final int MAGIC_NUMBER = 0x444D4153;
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_LENGTH = 8;
+
+    /**
+     * The file used for the decisions if no other file is chosen.
+     */
+    public static final File DEFAULT_FILE = new File(System.getProperty("user.home"),
+                                                     ".donation-manager" + File.separator + "aliases.log");
+
+    private final File file;
+    // The decisions on every name, by donor code: true if the user confirmed the match, false if they rejected it
+    private final Map<String, Map<String, Boolean>> decisions = new HashMap<>();
+    // The code of the donor every name was last confirmed to be, unless that match was rejected afterwards
+    private final Map<String, String> confirmedDonorCodes = new HashMap<>();
+    private int size;
+    // Whether the file is not a valid log, so that it is replaced instead of appended to
+    private boolean replaceFile;
+
+    /**
+     * @param file The file the decisions are appended to
+     */
+    public AliasStore(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Loads the decisions from a file. A file that can't be read or has no valid header is reported and treated like a
+     * missing one, so that it doesn't keep the donation list from being made. It is replaced by the next decision that
+     * is recorded. A decision that is not valid is reported as well, and the decisions before it are kept.
+     *
+     * @param file The file of the decisions
+     * @return the loaded decisions, or no decisions if the file doesn't exist yet or can't be read
+     */
+    public static AliasStore load(File file) {
+        AliasStore aliasStore = new AliasStore(file);
+        if (!file.isFile()) {
+            return aliasStore;
+        }
+
+        try {
+            byte[] content = Files.readAllBytes(file.toPath());
+            int validLength = aliasStore.readDecisions(content);
+            if (validLength < content.length) {
+                // What can't be read is cut off before anything is appended after it
+                try (RandomAccessFile output = new RandomAccessFile(file, "rw")) {
+                    output.setLength(validLength);
+                }
+            }
+            return aliasStore;
+        }
+        catch (IOException exception) {
+            System.err.printf("Could not load the alias decisions: %s%n", exception.getMessage());
+            AliasStore emptyAliasStore = new AliasStore(file);
+            emptyAliasStore.replaceFile = true;
+            return emptyAliasStore;
+        }
+    }
+
+    /**
+     * Finds the donor a name on a bank statement was confirmed to be.
+     *
+     * @param name The name on the bank statement
+     * @return the code of the donor the name was last confirmed to be, or empty if there is none
+     */
+    public Optional<String> findConfirmedDonorCode(String name) {
+        return Optional.ofNullable(this.confirmedDonorCodes.get(name.trim()));
+    }
+
+    /**
+     * Checks if the user rejected that a name on a bank statement is a donor.
+     *
+     * @param name      The name on the bank statement
+     * @param donorCode The code of the donor
+     * @return true if the last decision on this name and donor was a rejection
+     */
+    public boolean isRejected(String name, String donorCode) {
+        Map<String, Boolean> decisions = this.decisions.get(name.trim());
+        return decisions != null && Boolean.FALSE.equals(decisions.get(donorCode));
+    }
+
+    /**
+     * Remembers a decision of the user and appends it to the file right away.
+     *
+     * @param name      The name on the bank statement
+     * @param donorCode The code of the donor the name was compared with
+     * @param confirmed true if the user confirmed that the name is the donor, false if they rejected it
+     * @throws IOException if the decision can't be written
+     */
+    public void record(String name, String donorCode, boolean confirmed) throws IOException {
+        name = name.trim();
+
+        // The whole decision is written at once, so that it is only ever cut off if the program is killed
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream record = new DataOutputStream(bytes);
+        record.writeBoolean(confirmed);
+        record.writeUTF(name);
+        record.writeUTF(donorCode);
+
+        Files.createDirectories(this.file.getAbsoluteFile().getParentFile().toPath());
+        if (this.replaceFile) {
+            writeNewFile(bytes, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+            this.replaceFile = false;
+        }
+        else {
+            try {
+                writeNewFile(bytes, StandardOpenOption.CREATE_NEW);
+            }
+            catch (FileAlreadyExistsException exception) {
+                try (OutputStream output = Files.newOutputStream(this.file.toPath(), StandardOpenOption.APPEND)) {
+                    bytes.writeTo(output);
+                }
+            }
+        }
+        apply(name, donorCode, confirmed);
+    }
+
+    /**
+     * @return the number of decisions in the file, including the ones replaced by later decisions
+     */
+    public int size() {
+        return this.size;
+    }
+
+    private void writeNewFile(ByteArrayOutputStream decision, StandardOpenOption... options) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream header = new DataOutputStream(bytes);
+        header.writeInt(MAGIC_NUMBER);
+        header.writeInt(FORMAT_VERSION);
+        decision.writeTo(bytes);
+
+        try (OutputStream output = Files.newOutputStream(this.file.toPath(), options)) {
+            bytes.writeTo(output);
+        }
+    }
+
+    /**
+     * Reads the decisions of a log.
+     *
+     * @param content The content of the log
+     * @return the length of the decisions that could be read, including the header
+     * @throws IOException if the log doesn't start with a valid header
+     */
+    private int readDecisions(byte[] content) throws IOException {
+        ByteArrayInputStream bytes = new ByteArrayInputStream(content);
+        DataInputStream input = new DataInputStream(bytes);
+        try {
+            if (input.readInt() != MAGIC_NUMBER || input.readInt() != FORMAT_VERSION) {
+                throw new IOException(String.format("The alias file %s is not valid", this.file));
+            }
+        }
+        catch (EOFException exception) {
+            throw new IOException(String.format("The alias file %s is not valid", this.file));
+        }
+
+        int validLength = HEADER_LENGTH;
+        try {
+            while (bytes.available() > 0) {
+                boolean confirmed = input.readBoolean();
+                String name = input.readUTF();
+                String donorCode = input.readUTF();
+                apply(name, donorCode, confirmed);
+                validLength = content.length - bytes.available();
+            }
+        }
+        catch (EOFException exception) {
+            // The last decision was only partly written
+        }
+        catch (UTFDataFormatException exception) {
+            System.err.printf("Could not load the alias decisions after the first %d: %s%n",
+                              this.size,
+                              exception.getMessage());
+        }
+        return validLength;
+    }
+
+    private void apply(String name, String donorCode, boolean confirmed) {
+        this.decisions.computeIfAbsent(name, key -> new HashMap<>()).put(donorCode, confirmed);
+        if (confirmed) {
+            this.confirmedDonorCodes.put(name, donorCode);
+        }
+        else {
+            this.confirmedDonorCodes.remove(name, donorCode);
+        }
+        this.size++;
+    }
+}
@@ -0,0 +1,233 @@
+package donationmanager;
+
+/**
+ * Finds currency amounts in the format of the bank statements (1'111.11) and reads them as whole cents, without
+ * compiling patterns or making intermediate Strings. A scanner keeps the position and value of the amount found last,
+ * so it should not be shared between threads.
+ */
+public class AmountScanner {
+    private static final char DIGIT_GROUP_SEPARATOR = '\'';
+
+    private int start = -1;
+    private int end = -1;
+    private long cents;
+
+    /**
+     * Finds the first amount in a text. An amount is a run of digits and digit group separators, followed by a
+     * decimal point and two digits, that stands at the start of the text or after whitespace and is followed by
+     * whitespace or the end of the text. This finds the same amounts as the pattern
+     * {@code (^|\s)(\d|')+\.\d\d($|\s)}.
+     *
+     * @param text The text to be searched for an amount
+     * @return true if an amount was found
+     * @throws NumberFormatException if the amount found is too large to be held in cents
+     */
+    public boolean find(CharSequence text) {
+        int length = text.length();
+
+        for (int tokenStart = 0; tokenStart < length; tokenStart++) {
+            if (tokenStart > 0 && !isWhitespace(text.charAt(tokenStart - 1))) {
+                continue;
+            }
+
+            int i = tokenStart;
+            while (i < length && isDigitOrSeparator(text.charAt(i))) {
+                i++;
+            }
+            if (i == tokenStart || i + 3 > length || text.charAt(i) != '.' || !isDigit(text.charAt(i + 1))
+                    || !isDigit(text.charAt(i + 2))) {
+                continue;
+            }
+            int tokenEnd = i + 3;
+            boolean atEnd = isEndOfText(text, tokenEnd);
+            if (!atEnd && !isWhitespace(text.charAt(tokenEnd))) {
+                continue;
+            }
+
+            this.cents = parseCents(text, tokenStart, tokenEnd);
+            // Like the pattern, the match includes the whitespace around the amount
+            this.start = (tokenStart > 0) ? tokenStart - 1 : 0;
+            this.end = atEnd ? tokenEnd : tokenEnd + 1;
+            return true;
+        }
+
+        this.start = -1;
+        this.end = -1;
+        return false;
+    }
+
+    /**
+     * @return the amount found last, in cents
+     */
+    public long getCents() {
+        return this.cents;
+    }
+
+    /**
+     * @return the index where the amount found last starts, including the whitespace before it
+     */
+    public int getStart() {
+        return this.start;
+    }
+
+    /**
+     * @return the index after the end of the amount found last, including the whitespace after it
+     */
+    public int getEnd() {
+        return this.end;
+    }
+
+    /**
+     * Reads an amount field of a bank statement, like the debit or credit of an entry, as whole cents. The field may
+     * have a sign, digit group separators and decimal places down to the cents, and whitespace around it.
+     *
+     * @param field The amount field
+     * @return the amount in cents
+     * @throws NumberFormatException if the field does not hold an amount
+     */
+    public static long parseCents(CharSequence field) {
+        int start = 0;
+        int end = field.length();
+        while (start < end && isBlankOrSeparator(field.charAt(start))) {
+            start++;
+        }
+        while (end > start && isBlankOrSeparator(field.charAt(end - 1))) {
+            end--;
+        }
+
+        boolean negative = false;
+        if (start < end && (field.charAt(start) == '-' || field.charAt(start) == '+')) {
+            negative = field.charAt(start) == '-';
+            start++;
+        }
+
+        long cents = 0;
+        int digits = 0;
+        // The number of digits read after the decimal point, or -1 before it
+        int decimals = -1;
+        for (int i = start; i < end; i++) {
+            char c = field.charAt(i);
+            if (c == DIGIT_GROUP_SEPARATOR) {
+                continue;
+            }
+            if (c == '.' && decimals < 0) {
+                decimals = 0;
+                continue;
+            }
+            if (!isDigit(c) || decimals == 2 && c != '0') {
+                throw new NumberFormatException(String.format("The amount %s is not valid", field));
+            }
+            if (decimals == 2) {
+                // Trailing zeros after the cents
+                continue;
+            }
+
+            cents = addDigit(cents, c, field);
+            digits++;
+            if (decimals >= 0) {
+                decimals++;
+            }
+        }
+        if (digits == 0) {
+            throw new NumberFormatException(String.format("The amount %s is not valid", field));
+        }
+
+        for (int i = Math.max(decimals, 0); i < 2; i++) {
+            cents *= 10;
+        }
+        return negative ? -cents : cents;
+    }
+
+    /**
+     * Removes the digit group separators (') from an amount.
+     *
+     * @param amount The amount
+     * @return the amount without digit group separators, or the same String if it has none
+     */
+    public static String removeDigitGroupSeparators(String amount) {
+        int separator = amount.indexOf(DIGIT_GROUP_SEPARATOR);
+        if (separator < 0) {
+            return amount;
+        }
+
+        StringBuilder result = new StringBuilder(amount.length() - 1);
+        result.append(amount, 0, separator);
+        for (int i = separator + 1; i < amount.length(); i++) {
+            char c = amount.charAt(i);
+            if (c != DIGIT_GROUP_SEPARATOR) {
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+
+    /**
+     * Reads an amount found in a text as cents.
+     *
+     * @param text  The text holding the amount
+     * @param start The index of the first digit or digit group separator of the amount
+     * @param end   The index after the last digit of the amount, which has a decimal point and two digits before it
+     * @return the amount in cents
+     * @throws NumberFormatException if the amount is too large to be held in cents
+     */
+    private static long parseCents(CharSequence text, int start, int end) {
+        long cents = 0;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (isDigit(c)) {
+                cents = addDigit(cents, c, text);
+            }
+        }
+        return cents;
+    }
+
+    /**
+     * Appends a digit to an amount in cents.
+     *
+     * @throws NumberFormatException if the amount gets too large to be held in cents
+     */
+    private static long addDigit(long cents, char digit, CharSequence text) {
+        if (cents > (Long.MAX_VALUE - 9) / 10) {
+            throw new NumberFormatException(String.format("The amount in %s is too large", text));
+        }
+        return cents * 10 + (digit - '0');
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isDigitOrSeparator(char c) {
+        return isDigit(c) || c == DIGIT_GROUP_SEPARATOR;
+    }
+
+    private static boolean isBlankOrSeparator(char c) {
+        return c <= ' ' || c == DIGIT_GROUP_SEPARATOR;
+    }
+
+    /**
+     * Checks if an index is where {@code $} matches in a pattern: at the end of the text, or before a line terminator
+     * that ends the text.
+     */
+    private static boolean isEndOfText(CharSequence text, int index) {
+        int length = text.length();
+        if (index == length) {
+            return true;
+        }
+        if (index == length - 2) {
+            return text.charAt(index) == '\r' && text.charAt(index + 1) == '\n';
+        }
+        if (index == length - 1) {
+            char c = text.charAt(index);
+            return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+        }
+        return false;
+    }
+
+    /**
+     * Checks for the same whitespace characters as {@code \s} in a pattern.
+     */
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000b' || c == '\f' || c == '\r';
+    }
+}
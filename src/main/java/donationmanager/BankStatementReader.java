@@ -1,20 +1,100 @@
 package donationmanager;
 
+import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.pdmodel.DefaultResourceCache;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import technology.tabula.*;
 import technology.tabula.extractors.BasicExtractionAlgorithm;
 
+import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 @RequiredArgsConstructor
 public class BankStatementReader {
+    // Area of the table on the pages of an AEK bank statement, in PDF points from the top left corner
+    private static final float FIRST_PAGE_TOP = 399.6f;
+    private static final float PAGE_TOP = 231.84f;
+    private static final float LAST_PAGE_BOTTOM = 676.8f;
+    private static final float PAGE_BOTTOM = 817.284f;
+    private static final float LEFT = 71.052f;
+    private static final float RIGHT = 500f;
+    private static final List<Float> COLUMN_POSITIONS = List.of(110.45f, 307.84f, 346.77f, 419.51f);
+    private static final String TRAILER_TEXT = "Saldo per";
+    private static final String STATEMENT_SIGNATURE = "AEK BANK 1826";
+
+    /**
+     * Everything that determines the extracted table besides the PDF itself and the extraction engine. Part of the key
+     * of cached tables, so that changing any of these invalidates the tables cached before.
+     */
+    private static final String TABLE_LAYOUT = String.format("%s;%s;%s;%s;%s;%s;%s;%s",
+                                                             FIRST_PAGE_TOP,
+                                                             PAGE_TOP,
+                                                             LAST_PAGE_BOTTOM,
+                                                             PAGE_BOTTOM,
+                                                             LEFT,
+                                                             RIGHT,
+                                                             COLUMN_POSITIONS,
+                                                             TRAILER_TEXT);
+
     private final File bankStatement;
 
+    /**
+     * The number of worker threads used to extract the pages. With 1 (the default) the pages are extracted one after
+     * the other on the calling thread.
+     */
+    @Setter
+    private int parallelism = 1;
+
+    /**
+     * The maximum number of bytes of main memory PDFBox may use to buffer the bank statement before it spills over
+     * into temporary files. With a negative value (the default) the PDF is loaded into main memory only. Setting a
+     * limit also gives every page its own resource cache, so that the fonts and images of a page can be garbage
+     * collected as soon as the page has been extracted.
+     */
+    @Setter
+    private long maxMainMemoryBytes = -1;
+
+    /**
+     * The cache of previously extracted tables. If set, a bank statement that has been extracted before is loaded from
+     * the cache instead of being extracted again.
+     */
+    @Setter
+    private TableCache tableCache;
+
+    /**
+     * The engine used to extract the table from the pages. Tabula (the default) runs its general stream extraction on
+     * every page, while the text layer engine buckets the glyphs of the page straight into the known columns and lines,
+     * which gives the same table in less time.
+     */
+    @Setter
+    @NonNull
+    private ExtractionEngine engine = ExtractionEngine.TABULA;
+
     /**
      * Extracts the of donations out of the bank statement PDF file. It has to extract each page individually and then
      * concatenate those tables together.
@@ -23,60 +103,193 @@ public class BankStatementReader {
      * @throws IOException if loading the bank statement fails
      */
     public List<List<RectangularTextContainer>> extractTable() throws IOException {
+        String cacheKey = null;
+        if (this.tableCache != null) {
+            cacheKey = TableCache.makeKey(this.bankStatement, this.engine + ";" + TABLE_LAYOUT);
 
-        BasicExtractionAlgorithm extractionAlgorithm = new BasicExtractionAlgorithm();
+            Optional<List<List<RectangularTextContainer>>> cachedTable = this.tableCache.load(cacheKey);
+            if (cachedTable.isPresent()) {
+                return cachedTable.get();
+            }
+        }
 
-        PDDocument inputPDF = PDDocument.load(this.bankStatement);
-        ObjectExtractor extractor = new ObjectExtractor(inputPDF);
+        PDDocument inputPDF = loadBankStatement();
+        List<List<RectangularTextContainer>> table;
+        try {
+            // The first page is extracted on its own, since it is checked to be an AEK bank statement as well
+            PageExtractor pageExtractor = new PageExtractor(inputPDF);
+            table = new ArrayList<>(pageExtractor.extractTableFromPage(1));
 
-        validateFile(extractor);
+            int lastPage = pageExtractor.lastPage;
+            if (this.parallelism > 1 && lastPage > 1) {
+                // Every worker loads the bank statement on its own
+                inputPDF.close();
+                table.addAll(extractTableInParallel(2, lastPage));
+            }
+            else {
+                for (int pageNumber = 2; pageNumber <= lastPage; pageNumber++) {
+                    List<List<RectangularTextContainer>> partialTable = pageExtractor.extractTableFromPage(pageNumber);
+                    table.addAll(partialTable);
+                }
+            }
+        }
+        finally {
+            inputPDF.close();
+        }
 
-        List<List<RectangularTextContainer>> table = new ArrayList<>();
+        if (this.tableCache != null) {
+            // The cache only saves time, so a table that can't be stored is still returned
+            try {
+                this.tableCache.store(cacheKey, table);
+            }
+            catch (IOException exception) {
+                System.err.printf("Could not store the table in the cache: %s%n", exception.getMessage());
+            }
+        }
 
-        int lastPage = inputPDF.getNumberOfPages();
-        for (int pageNumber = 1; pageNumber <= lastPage; pageNumber++) {
-            List<List<RectangularTextContainer>> partialTable = extractTableFromPage(pageNumber,
-                                                                                     lastPage,
-                                                                                     extractor,
-                                                                                     extractionAlgorithm);
+        return table;
+    }
 
-            table.addAll(partialTable);
+    /**
+     * Streams the rows of the bank statement table instead of building the whole table in memory. The pages are
+     * extracted lazily, and each Tabula Page is released as soon as its rows have been handed out. Only the first page
+     * is extracted right away, since it is checked to be an AEK bank statement as well. The stream ends after the page
+     * containing the "Saldo per..." trailer, so the rows of any pages after it are never handed out.
+     * <p>
+     * With a parallelism of more than 1, the pages are extracted ahead of the stream on as many worker threads, so
+     * that at most that many pages are being extracted or waiting to be handed out at any time. Pages after the
+     * trailer may still be extracted then, but their rows are dropped.
+     * <p>
+     * If a table cache is set, a bank statement that has been extracted before is streamed from the cache. Otherwise
+     * the rows are also kept until the end of the stream, to be stored in the cache once all of them have been handed
+     * out.
+     * <p>
+     * The stream holds the bank statement open and has to be closed after use, e.g. with try-with-resources.
+     *
+     * @return the rows of the extracted table, as lists of Tabula RectangularTextContainer objects
+     * @throws IOException              if loading the bank statement fails
+     * @throws IllegalArgumentException if the file is not a valid bank statement
+     */
+    public Stream<List<RectangularTextContainer>> streamRows() throws IOException {
+        String cacheKey = null;
+        if (this.tableCache != null) {
+            cacheKey = TableCache.makeKey(this.bankStatement, this.engine + ";" + TABLE_LAYOUT);
 
+            Optional<List<List<RectangularTextContainer>>> cachedTable = this.tableCache.load(cacheKey);
+            if (cachedTable.isPresent()) {
+                return cachedTable.get().stream();
+            }
         }
-        inputPDF.close();
 
-        printTable(table);
-        return table;
-    }
+        PDDocument inputPDF = loadBankStatement();
+        List<List<RectangularTextContainer>> firstPage;
+        PageSource pages;
+
+        try {
+            // The first page is extracted right away, since it is checked to be an AEK bank statement as well
+            PageExtractor pageExtractor = new PageExtractor(inputPDF);
+            firstPage = pageExtractor.extractUntrimmedTableFromPage(1);
+
+            if (this.parallelism > 1 && pageExtractor.lastPage > 1) {
+                // Every worker loads the bank statement on its own
+                inputPDF.close();
+                pages = new PageLookahead(pageExtractor.lastPage);
+            }
+            else {
+                pages = new PageSequence(pageExtractor);
+            }
+        }
+        catch (IOException | RuntimeException exception) {
+            inputPDF.close();
+            throw exception;
+        }
 
+        PageRowSpliterator rows = new PageRowSpliterator(firstPage, pages, cacheKey);
+        return StreamSupport.stream(rows, false).onClose(() -> {
+            try {
+                pages.close();
+            }
+            catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+        });
+    }
 
     /**
-     * Extracts a table from a specific page of the PDF file. If no table is found in the page, it returns an empty
-     * list.
+     * Reads the transactions out of the bank statement while its table is being extracted, without building the whole
+     * table of extracted cells. See TransactionManager.readTransactions.
      *
-     * @param pageNumber          Number if the page to be extracted
-     * @param lastPageNumber      The final page to be extracted
-     * @param extractor           Tabula class used to extract tables
-     * @param extractionAlgorithm Tabula class used to extract tables
-     * @return A 2D list of RectangularTextContainers
+     * @return the transactions in the bank statement
+     * @throws IOException              if loading the bank statement fails
+     * @throws IllegalArgumentException if the file is not a valid bank statement
      */
-    private List<List<RectangularTextContainer>> extractTableFromPage(int pageNumber,
-                                                                             int lastPageNumber,
-                                                                             ObjectExtractor extractor,
-                                                                             BasicExtractionAlgorithm extractionAlgorithm) {
-        Page page = extractor.extract(pageNumber);
+    public TransactionBatch readTransactions() throws IOException {
+        try (Stream<List<RectangularTextContainer>> rows = streamRows()) {
+            return TransactionManager.readTransactions(rows);
+        }
+        catch (UncheckedIOException exception) {
+            throw exception.getCause();
+        }
+    }
 
-        float top = (pageNumber == 1) ? 399.6f : 231.84f;
-        float bottom = (pageNumber == lastPageNumber) ? 676.8f : 817.284f;
-        float left = 71.052f;
-        float right = 500f;
+    /**
+     * Loads the bank statement, either into main memory only or, if a memory limit is set, into main memory up to the
+     * limit and temporary files beyond it.
+     *
+     * @return the loaded bank statement
+     * @throws IOException if loading the bank statement fails
+     */
+    private PDDocument loadBankStatement() throws IOException {
+        if (this.maxMainMemoryBytes < 0) {
+            return PDDocument.load(this.bankStatement);
+        }
+        return PDDocument.load(this.bankStatement, MemoryUsageSetting.setupMixed(this.maxMainMemoryBytes));
+    }
 
-        List<Float> columnPositions = Arrays.asList(110.45f, 307.84f, 346.77f, 419.51f);
-        Table table = extractionAlgorithm.extract(page.getArea(top, left, bottom, right), columnPositions).get(0);
+    /**
+     * Drops the cached fonts, color spaces and images of the page that has just been extracted when a memory limit is
+     * set. The next page starts with an empty resource cache.
+     *
+     * @param inputPDF The bank statement being extracted
+     */
+    private void releasePageResources(PDDocument inputPDF) {
+        if (this.maxMainMemoryBytes >= 0) {
+            inputPDF.setResourceCache(new DefaultResourceCache());
+        }
+    }
 
-        return trim(table);
+    /**
+     * Extracts a range of pages of the bank statement on a fork-join pool with as many workers as the configured
+     * parallelism. The page range is split into one slice per worker, every slice is extracted with its own PDDocument
+     * and ObjectExtractor, and the partial tables are concatenated in page order.
+     *
+     * @param firstPage The first page to be extracted
+     * @param lastPage  The number of pages in the bank statement, which is the last page to be extracted
+     * @return the extracted table of the pages, identical to the one extracted sequentially
+     * @throws IOException if loading the bank statement fails in one of the workers
+     */
+    private List<List<RectangularTextContainer>> extractTableInParallel(int firstPage, int lastPage)
+            throws IOException {
+        int pagesPerSlice = (lastPage - firstPage + this.parallelism) / this.parallelism;
+        ForkJoinPool pool = new ForkJoinPool(this.parallelism);
+        try {
+            return pool.invoke(new PageRangeExtraction(firstPage, lastPage, lastPage, pagesPerSlice));
+        }
+        catch (RuntimeException exception) {
+            // Exceptions thrown in a worker can be rethrown wrapped in a copy, so search the whole chain
+            for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+                if (cause instanceof UncheckedIOException) {
+                    throw ((UncheckedIOException) cause).getCause();
+                }
+            }
+            throw exception;
+        }
+        finally {
+            pool.shutdown();
+        }
     }
 
+
     /**
      * Debugging method used to print out an extracted table.
      *
@@ -115,40 +328,46 @@ public class BankStatementReader {
     /**
      * Removes useless rows from the end of the table, starting with the row that reads "Saldo per..."
      *
-     * @param table The table to be trimmed
+     * @param iterableTable The table to be trimmed
      * @return the trimmed table as a 2d list of RectangularTextContainers
      */
-    private List<List<RectangularTextContainer>> trim(Table table) {
-        List<List<RectangularTextContainer>> iterableTable = table.getRows();
-        for (int i = iterableTable.size() - 1; i >= 0; i--) {
-            if (iterableTable.get(i).get(1).getText().contains("Saldo per")) {
-                iterableTable.subList(i, iterableTable.size()).clear();
-                return iterableTable;
-            }
+    private List<List<RectangularTextContainer>> trim(List<List<RectangularTextContainer>> iterableTable) {
+        int trailerRow = findTrailerRow(iterableTable);
+        if (trailerRow >= 0) {
+            iterableTable.subList(trailerRow, iterableTable.size()).clear();
         }
         return iterableTable;
     }
 
     /**
-     * Checks if the file is a valid bank statement. It does this by reading the first 13 characters of the file. In
-     * every AEK bank statement, this will be "AEK BANK 1826".
+     * Finds the last row that reads "Saldo per...", which marks the end of the transactions in the table.
      *
-     * @param extractor Contains information about the file to be validated
-     * @throws IllegalArgumentException if the file is not valid
+     * @param rows The rows to be searched
+     * @return the index of the trailer row, or -1 if there is none
      */
-    private void validateFile(ObjectExtractor extractor) {
-        StringBuilder AEKString = new StringBuilder();
-        List<TextElement> textInFirstPage = extractor.extract(1).getText();
-        try {
-            for (int i = 0; i < 13; i++) {
-                AEKString.append(textInFirstPage.get(i).getText());
+    private int findTrailerRow(List<List<RectangularTextContainer>> rows) {
+        for (int i = rows.size() - 1; i >= 0; i--) {
+            if (rows.get(i).get(1).getText().contains(TRAILER_TEXT)) {
+                return i;
             }
         }
-        catch (IndexOutOfBoundsException exception) {
-            throwInvalidStatementException();
+        return -1;
+    }
+
+    /**
+     * Checks if the file is a valid bank statement from the text of its first page, which is taken from the extraction
+     * of the first page, so that the page is not parsed again for this. Every AEK bank statement starts with "AEK BANK
+     * 1826".
+     *
+     * @param firstPageText The text elements of the first page, in the order of a Tabula Page
+     * @throws IllegalArgumentException if the file is not valid
+     */
+    private void validateFile(List<TextElement> firstPageText) {
+        StringBuilder leadingText = new StringBuilder();
+        for (int i = 0; i < Math.min(STATEMENT_SIGNATURE.length(), firstPageText.size()); i++) {
+            leadingText.append(firstPageText.get(i).getText());
         }
-        if (!AEKString.toString().equals("AEK BANK 1826")) {
-            System.out.print(AEKString);
+        if (!leadingText.toString().startsWith(STATEMENT_SIGNATURE)) {
             throwInvalidStatementException();
         }
     }
@@ -156,4 +375,324 @@ public class BankStatementReader {
     private void throwInvalidStatementException() {
         throw new IllegalArgumentException("The selected file is not a valid bank statement");
     }
+
+    /**
+     * Extracts a range of pages of the bank statement. Ranges bigger than a slice are split in half and extracted
+     * concurrently, so that every worker only loads the PDF once for its own slice.
+     */
+    @RequiredArgsConstructor
+    private class PageRangeExtraction extends RecursiveTask<List<List<RectangularTextContainer>>> {
+        private final int firstPage;
+        private final int lastPageOfRange;
+        private final int lastPage;
+        private final int pagesPerSlice;
+
+        @Override
+        protected List<List<RectangularTextContainer>> compute() {
+            if (this.lastPageOfRange - this.firstPage + 1 > this.pagesPerSlice) {
+                int middlePage = (this.firstPage + this.lastPageOfRange) / 2;
+                PageRangeExtraction firstHalf = new PageRangeExtraction(this.firstPage,
+                                                                        middlePage,
+                                                                        this.lastPage,
+                                                                        this.pagesPerSlice);
+                PageRangeExtraction secondHalf = new PageRangeExtraction(middlePage + 1,
+                                                                         this.lastPageOfRange,
+                                                                         this.lastPage,
+                                                                         this.pagesPerSlice);
+                secondHalf.fork();
+
+                List<List<RectangularTextContainer>> table = new ArrayList<>(firstHalf.compute());
+                table.addAll(secondHalf.join());
+                return table;
+            }
+
+            List<List<RectangularTextContainer>> table = new ArrayList<>();
+            try (PDDocument inputPDF = loadBankStatement()) {
+                PageExtractor pageExtractor = new PageExtractor(inputPDF);
+
+                for (int pageNumber = this.firstPage; pageNumber <= this.lastPageOfRange; pageNumber++) {
+                    table.addAll(pageExtractor.extractTableFromPage(pageNumber));
+                }
+            }
+            catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+            return table;
+        }
+    }
+
+    /**
+     * Hands out the rows of the bank statement page by page. A page is only taken from the page source once all rows
+     * of the previous page have been consumed, and no further page is taken after the "Saldo per..." trailer.
+     */
+    private class PageRowSpliterator extends Spliterators.AbstractSpliterator<List<RectangularTextContainer>> {
+        private final PageSource pages;
+        private final String cacheKey;
+        // The rows handed out so far, to be stored in the cache at the end, or null if there is no cache
+        private final List<List<RectangularTextContainer>> cachedRows;
+        private Iterator<List<RectangularTextContainer>> pageRows = Collections.emptyIterator();
+        private boolean trailerFound = false;
+        private boolean finished = false;
+
+        /**
+         * @param firstPage The untrimmed rows of the first page, which has been extracted already
+         * @param pages     The pages after the first one
+         * @param cacheKey  The key the table is stored under in the cache, or null if there is no cache
+         */
+        PageRowSpliterator(List<List<RectangularTextContainer>> firstPage, PageSource pages, String cacheKey) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.pages = pages;
+            this.cacheKey = cacheKey;
+            this.cachedRows = (cacheKey != null) ? new ArrayList<>() : null;
+            startPage(firstPage);
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super List<RectangularTextContainer>> action) {
+            while (!this.pageRows.hasNext()) {
+                if (this.finished) {
+                    return false;
+                }
+
+                List<List<RectangularTextContainer>> rows;
+                try {
+                    rows = this.trailerFound ? null : this.pages.extractNextPage();
+                }
+                catch (IOException exception) {
+                    throw new UncheckedIOException(exception);
+                }
+                if (rows == null) {
+                    finish();
+                    return false;
+                }
+                startPage(rows);
+            }
+
+            List<RectangularTextContainer> row = this.pageRows.next();
+            if (this.cachedRows != null) {
+                this.cachedRows.add(row);
+            }
+            action.accept(row);
+            return true;
+        }
+
+        /**
+         * Starts handing out the rows of a page, up to the "Saldo per..." trailer if the page has it.
+         */
+        private void startPage(List<List<RectangularTextContainer>> rows) {
+            int trailerRow = findTrailerRow(rows);
+            if (trailerRow >= 0) {
+                rows = rows.subList(0, trailerRow);
+                this.trailerFound = true;
+            }
+            this.pageRows = rows.iterator();
+        }
+
+        /**
+         * Stores the table in the cache once all rows have been handed out.
+         */
+        private void finish() {
+            this.finished = true;
+            if (this.cachedRows == null) {
+                return;
+            }
+
+            // The cache only saves time, so a table that can't be stored is still handed out
+            try {
+                tableCache.store(this.cacheKey, this.cachedRows);
+            }
+            catch (IOException exception) {
+                System.err.printf("Could not store the table in the cache: %s%n", exception.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Hands out the extracted pages of a bank statement in page order.
+     */
+    private interface PageSource extends Closeable {
+        /**
+         * Extracts the next page.
+         *
+         * @return the untrimmed rows of the page, or null if there are no more pages
+         * @throws IOException if the page can't be parsed
+         */
+        List<List<RectangularTextContainer>> extractNextPage() throws IOException;
+    }
+
+    /**
+     * Extracts the pages after the first one, one after the other on the thread consuming them, with a single loaded
+     * bank statement.
+     */
+    @RequiredArgsConstructor
+    private static class PageSequence implements PageSource {
+        private final PageExtractor pageExtractor;
+        private int nextPage = 2;
+
+        @Override
+        public List<List<RectangularTextContainer>> extractNextPage() throws IOException {
+            if (this.nextPage > this.pageExtractor.lastPage) {
+                return null;
+            }
+            return this.pageExtractor.extractUntrimmedTableFromPage(this.nextPage++);
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.pageExtractor.inputPDF.close();
+        }
+    }
+
+    /**
+     * Extracts the pages after the first one ahead of the thread consuming them, on a pool with as many workers as the configured
+     * parallelism. Every worker loads the bank statement once, since a PDDocument can't be shared between threads.
+     * No more pages are extracted ahead than there are workers, so only a bounded number of pages is held at a time.
+     */
+    private class PageLookahead implements PageSource {
+        private final int lastPage;
+        private final ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        private final ThreadLocal<PageExtractor> pageExtractors = new ThreadLocal<>();
+        private final List<PDDocument> inputPDFs = Collections.synchronizedList(new ArrayList<>());
+        private final Deque<Future<List<List<RectangularTextContainer>>>> pages = new ArrayDeque<>();
+        private int nextPage = 2;
+
+        PageLookahead(int lastPage) {
+            this.lastPage = lastPage;
+            while (this.pages.size() < parallelism && this.nextPage <= this.lastPage) {
+                submitNextPage();
+            }
+        }
+
+        @Override
+        public List<List<RectangularTextContainer>> extractNextPage() throws IOException {
+            Future<List<List<RectangularTextContainer>>> page = this.pages.poll();
+            if (page == null) {
+                return null;
+            }
+            if (this.nextPage <= this.lastPage) {
+                submitNextPage();
+            }
+
+            try {
+                return page.get();
+            }
+            catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for a page to be extracted");
+            }
+            catch (ExecutionException exception) {
+                Throwable cause = exception.getCause();
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                }
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw (RuntimeException) cause;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.executor.shutdownNow();
+            try {
+                // The pages being extracted can't be interrupted, so they are waited for before their PDFs are closed
+                while (!this.executor.awaitTermination(1, TimeUnit.SECONDS)) {
+                    // Wait on until the workers are done
+                }
+            }
+            catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+
+            for (PDDocument inputPDF : this.inputPDFs) {
+                inputPDF.close();
+            }
+        }
+
+        private void submitNextPage() {
+            int pageNumber = this.nextPage++;
+            this.pages.add(this.executor.submit(() -> getPageExtractor().extractUntrimmedTableFromPage(pageNumber)));
+        }
+
+        /**
+         * @return the page extractor of the current worker, which loads the bank statement on its first page
+         */
+        private PageExtractor getPageExtractor() throws IOException {
+            PageExtractor pageExtractor = this.pageExtractors.get();
+            if (pageExtractor == null) {
+                PDDocument inputPDF = loadBankStatement();
+                this.inputPDFs.add(inputPDF);
+                pageExtractor = new PageExtractor(inputPDF);
+                this.pageExtractors.set(pageExtractor);
+            }
+            return pageExtractor;
+        }
+    }
+
+    /**
+     * Extracts the tables of the pages of one loaded bank statement with the chosen extraction engine. The Tabula and
+     * PDFBox objects needed for that are set up once and reused for every page.
+     */
+    private class PageExtractor {
+        private final PDDocument inputPDF;
+        private final int lastPage;
+        private final ObjectExtractor extractor;
+        private final BasicExtractionAlgorithm extractionAlgorithm = new BasicExtractionAlgorithm();
+        private final TextLayerExtractor textLayerExtractor;
+
+        PageExtractor(PDDocument inputPDF) throws IOException {
+            this.inputPDF = inputPDF;
+            this.lastPage = inputPDF.getNumberOfPages();
+            this.extractor = new ObjectExtractor(inputPDF);
+            this.textLayerExtractor = (engine == ExtractionEngine.TEXT_LAYER) ? new TextLayerExtractor(inputPDF) : null;
+        }
+
+        /**
+         * Extracts a table from a specific page of the PDF file. If no table is found in the page, it returns an empty
+         * list.
+         *
+         * @param pageNumber Number if the page to be extracted
+         * @return A 2D list of RectangularTextContainers
+         * @throws IOException if the page can't be parsed
+         */
+        List<List<RectangularTextContainer>> extractTableFromPage(int pageNumber) throws IOException {
+            return trim(extractUntrimmedTableFromPage(pageNumber));
+        }
+
+        /**
+         * Extracts the table from a specific page of the PDF file, without removing the "Saldo per..." trailer. The
+         * first page is also checked to be an AEK bank statement, from the text of the page that is extracted anyway.
+         *
+         * @param pageNumber Number if the page to be extracted
+         * @return A 2D list of RectangularTextContainers
+         * @throws IOException              if the page can't be parsed
+         * @throws IllegalArgumentException if the first page is not the one of an AEK bank statement
+         */
+        List<List<RectangularTextContainer>> extractUntrimmedTableFromPage(int pageNumber) throws IOException {
+            float top = (pageNumber == 1) ? FIRST_PAGE_TOP : PAGE_TOP;
+            float bottom = (pageNumber == this.lastPage) ? LAST_PAGE_BOTTOM : PAGE_BOTTOM;
+
+            List<List<RectangularTextContainer>> rows;
+            if (this.textLayerExtractor != null) {
+                this.textLayerExtractor.setKeepPageText(pageNumber == 1);
+                rows = this.textLayerExtractor.extract(pageNumber, top, LEFT, bottom, RIGHT, COLUMN_POSITIONS);
+                if (pageNumber == 1) {
+                    validateFile(this.textLayerExtractor.getPageText());
+                }
+            }
+            else {
+                Page page = this.extractor.extract(pageNumber);
+                if (pageNumber == 1) {
+                    validateFile(page.getText());
+                }
+                rows = this.extractionAlgorithm.extract(page.getArea(top, LEFT, bottom, RIGHT), COLUMN_POSITIONS)
+                        .get(0)
+                        .getRows();
+            }
+
+            releasePageResources(this.inputPDF);
+            return rows;
+        }
+    }
 }
@@ -0,0 +1,166 @@
+package donationmanager;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import org.apache.commons.io.FilenameUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+@RequiredArgsConstructor
+public class BatchProcessor {
+    @NonNull
+    private final List<File> bankStatements;
+    private final int workers;
+
+    /**
+     * The bank statements that could not be read, together with the reason why.
+     */
+    @Getter
+    private final Map<File, Exception> failures = new LinkedHashMap<>();
+
+    /**
+     * The cache of previously extracted tables used by all bank statement readers, if any.
+     */
+    @Setter
+    private TableCache tableCache;
+
+    /**
+     * The engine used by all bank statement readers to extract the tables.
+     */
+    @Setter
+    @NonNull
+    private ExtractionEngine engine = ExtractionEngine.TABULA;
+
+    /**
+     * The index of the transactions that were already imported, if any. Every bank statement is checked against it on
+     * its own, before the bank statements are put together, so that a transaction that two overlapping bank
+     * statements of the same batch both hold is only kept once.
+     */
+    @Setter
+    private DuplicateDetector duplicateDetector;
+
+    /**
+     * The number of transactions left out because they were already imported.
+     */
+    @Getter
+    private int duplicates;
+
+    /**
+     * Collects the bank statements to be processed from the given paths. Directories are replaced by the PDF files
+     * they contain, in alphabetical order.
+     *
+     * @param paths Paths to bank statement PDFs or to directories containing them
+     * @return the bank statements to be processed
+     * @throws IllegalArgumentException if a path does not exist
+     */
+    public static List<File> findBankStatements(List<File> paths) {
+        List<File> bankStatements = new ArrayList<>();
+
+        for (File path : paths) {
+            if (path.isDirectory()) {
+                File[] files = path.listFiles((directory, name) -> FilenameUtils.isExtension(name,
+                                                                                            FileFilter.PDF.extensions));
+                if (files != null) {
+                    Arrays.sort(files);
+                    bankStatements.addAll(Arrays.asList(files));
+                }
+            }
+            else if (path.isFile()) {
+                bankStatements.add(path);
+            }
+            else {
+                throw new IllegalArgumentException(String.format("The path %s does not exist", path));
+            }
+        }
+        return bankStatements;
+    }
+
+    /**
+     * Reads the transactions out of all bank statements, with a bounded number of statements being read at the same
+     * time. A bank statement that can't be read is reported and skipped, the rest of the batch is still processed.
+     *
+     * @return the transactions of all readable bank statements, in the order of the bank statements
+     * @throws InterruptedException if interrupted while waiting for the bank statements to be read
+     */
+    public TransactionBatch readTransactions() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, this.workers));
+
+        try {
+            List<Future<TransactionBatch>> results = new ArrayList<>();
+            for (File bankStatement : this.bankStatements) {
+                results.add(executor.submit(() -> readTransactions(bankStatement)));
+            }
+
+            TransactionBatch transactions = new TransactionBatch();
+            for (int i = 0; i < results.size(); i++) {
+                try {
+                    transactions.addAll(removeDuplicates(results.get(i).get()));
+                }
+                catch (ExecutionException exception) {
+                    reportFailure(this.bankStatements.get(i), exception.getCause());
+                }
+            }
+            return transactions;
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Reads the transactions out of a single bank statement.
+     *
+     * @param bankStatement The bank statement PDF
+     * @return the transactions in the bank statement
+     * @throws IOException if loading the bank statement fails
+     */
+    private TransactionBatch readTransactions(File bankStatement) throws IOException {
+        BankStatementReader bankStatementReader = new BankStatementReader(bankStatement);
+        bankStatementReader.setTableCache(this.tableCache);
+        bankStatementReader.setEngine(this.engine);
+        return bankStatementReader.readTransactions();
+    }
+
+    /**
+     * Leaves out the transactions of a bank statement that were already imported, if there is an index of them.
+     *
+     * @param transactions The transactions of a single bank statement
+     * @return the new transactions
+     */
+    private TransactionBatch removeDuplicates(TransactionBatch transactions) {
+        if (this.duplicateDetector == null) {
+            return transactions;
+        }
+
+        TransactionBatch newTransactions = this.duplicateDetector.removeDuplicates(transactions);
+        this.duplicates += transactions.size() - newTransactions.size();
+        return newTransactions;
+    }
+
+    /**
+     * Records and prints out the reason why a bank statement could not be read.
+     *
+     * @param bankStatement The bank statement that could not be read
+     * @param cause         The reason why
+     */
+    private void reportFailure(File bankStatement, Throwable cause) {
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+
+        this.failures.put(bankStatement, (Exception) cause);
+        System.err.printf("Skipped %s: %s%n", bankStatement.getName(), cause.getMessage());
+    }
+}
@@ -0,0 +1,62 @@
+package donationmanager;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * SHA-256 hashes of the content of files, to recognise a file that is unchanged no matter where it is or when it was
+ * last modified.
+ */
+public class ContentHash {
+    private ContentHash() {
+    }
+
+    /**
+     * Hashes the bytes of a file.
+     *
+     * @param file The file to be hashed
+     * @return the hash, as a hexadecimal string
+     * @throws IOException if the file can't be read
+     */
+    public static String of(File file) throws IOException {
+        return of(file, "");
+    }
+
+    /**
+     * Hashes the bytes of a file followed by a text, e.g. the parameters the file is processed with.
+     *
+     * @param file The file to be hashed
+     * @param text The text hashed after the file, in UTF-8
+     * @return the hash, as a hexadecimal string
+     * @throws IOException if the file can't be read
+     */
+    public static String of(File file, String text) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        }
+        catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException(exception);
+        }
+
+        try (InputStream input = new DigestInputStream(new FileInputStream(file), digest)) {
+            byte[] buffer = new byte[64 * 1024];
+            while (input.read(buffer) != -1) {
+                // The digest is updated while reading
+            }
+        }
+        digest.update(text.getBytes(StandardCharsets.UTF_8));
+
+        StringBuilder hash = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hash.append(String.format("%02x", b));
+        }
+        return hash.toString();
+    }
+}
@@ -1,6 +1,7 @@
 package donationmanager;
 
 import javax.swing.*;
+import java.io.File;
 
 public class DialogueBox {
     /**
@@ -15,4 +16,18 @@ public class DialogueBox {
 
         return JOptionPane.showConfirmDialog(null, message, "", JOptionPane.YES_NO_OPTION);
     }
+
+    /**
+     * Shows a dialogue box asking if the donation list that was written is final, in which case its transactions are
+     * left out of later bank statements
+     *
+     * @param outputFile The donation list that was written
+     * @return The selected option (Can be JOptionPane.YES_OPTION or JOptionPane.NO_OPTION)
+     */
+    public int showFinalDonationListDialogue(File outputFile) {
+        String message = String.format("Is the donation list %s final? If so, its transactions will be left out when "
+                                       + "they appear in a later bank statement again.", outputFile.getName());
+
+        return JOptionPane.showConfirmDialog(null, message, "", JOptionPane.YES_NO_OPTION);
+    }
 }
\ No newline at end of file
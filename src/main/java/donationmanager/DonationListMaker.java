@@ -1,118 +1,305 @@
 package donationmanager;
 
-import me.xdrop.fuzzywuzzy.FuzzySearch;
+import lombok.Setter;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 
 import javax.swing.*;
+import java.io.BufferedOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class DonationListMaker {
-    private final Sheet allDonorsSheet;
-    private final List<Transaction> transactions;
+    // Fuzzy matches need to score above 70 to be shown to the user
+    private static final int MINIMUM_FUZZY_SCORE = 71;
+
+    private final DonorTable allDonorsTable;
+    private final DonorIndex donorIndex;
+    private final TransactionBatch transactions;
     private final File outputFile;
-    private final Workbook outputExcel = new XSSFWorkbook();
-    private final Sheet outputSheet;
     private final DialogueBox dialogueBox;
 
+    /**
+     * The number of worker threads that find the matches of the transactions. The matches are always found in the
+     * background, so that the user can already confirm the first matches while the others are still being found.
+     */
+    @Setter
+    private int parallelism = 1;
+
+    /**
+     * The number of rows of the output file kept in memory while it is filled. The rows before them are flushed to a
+     * temporary file, so that outputs of any length fit into memory. With -1 all rows are kept in memory.
+     */
+    @Setter
+    private int rowAccessWindowSize = SXSSFWorkbook.DEFAULT_WINDOW_SIZE;
+
+    /**
+     * The memory of the user's earlier decisions on fuzzy matches, if any. Names the user confirmed before are matched
+     * without searching or asking again, and matches the user rejected before are not shown again.
+     */
+    @Setter
+    private AliasStore aliasStore;
+
     public DonationListMaker(File allDonorsFile,
                              List<Transaction> transactions,
                              File outputFile,
                              DialogueBox dialogueBox) {
+        this(allDonorsFile, TransactionBatch.of(transactions), outputFile, dialogueBox);
+    }
 
+    public DonationListMaker(File allDonorsFile,
+                             TransactionBatch transactions,
+                             File outputFile,
+                             DialogueBox dialogueBox) {
+        this(loadDonors(allDonorsFile, null), transactions, outputFile, dialogueBox);
+    }
+
+    /**
+     * @param donorIndex The list of all known donors, loaded with loadDonors beforehand, e.g. while the transactions
+     *                   were still being read.
+     */
+    public DonationListMaker(DonorIndex donorIndex,
+                             TransactionBatch transactions,
+                             File outputFile,
+                             DialogueBox dialogueBox) {
+
+        this.donorIndex = donorIndex;
+        this.allDonorsTable = donorIndex.getDonorTable();
         this.transactions = transactions;
         this.outputFile = outputFile;
         this.dialogueBox = dialogueBox;
 
+        checkOutputFile(outputFile);
+    }
+
+    /**
+     * Checks that the output file is an Excel file, so that a wrong choice can be reported before any work is done.
+     *
+     * @param outputFile The file the donation list is to be written to
+     * @throws IllegalArgumentException if the output file is not an Excel file
+     */
+    public static void checkOutputFile(File outputFile) {
+        if (!FilenameUtils.isExtension(outputFile.getName(), FileFilter.EXCEL.extensions)) {
+            throw new IllegalArgumentException(
+                    "The output file does not have the correct file format (must be an Excel file)");
+        }
+    }
+
+    /**
+     * Loads and indexes the list of all known donors, and checks that it is the Excel file with all known donors.
+     *
+     * @param allDonorsFile The Excel file with all known donors
+     * @param donorSnapshot The snapshots the list is loaded from if it hasn't changed since the last run, or null to
+     *                      always read the Excel file
+     * @return the index of the donors, which holds the donor table as well
+     * @throws IllegalArgumentException if the file can't be read or is not the Excel file with all known donors
+     */
+    public static DonorIndex loadDonors(File allDonorsFile, DonorSnapshot donorSnapshot) {
+        DonorIndex donorIndex;
+
         // Check if all donors file is an Excel file
-        Workbook allDonorsExcel;
         try {
-            allDonorsExcel = new XSSFWorkbook(new FileInputStream(allDonorsFile));
+            donorIndex = donorSnapshot != null ? donorSnapshot.load(allDonorsFile)
+                                               : DonorIndex.of(DonorTable.load(allDonorsFile));
         }
         catch (IOException exception) {
             throw new IllegalArgumentException(exception.getMessage());
         }
 
-        this.allDonorsSheet = allDonorsExcel.getSheet("ACTIVE DONORS  2022") != null ? allDonorsExcel.getSheet(
-                "ACTIVE DONORS  2022") : allDonorsExcel.getSheetAt(0);
-
-        Row firstRow = allDonorsSheet.getRow(0);
-        Cell firstCell;
-
         // Validate all donors file
-        if (firstRow == null || (firstCell = firstRow.getCell(0)) == null ||
-            firstCell.getCellType() != CellType.STRING || !firstCell.getStringCellValue().equals("Code /")) {
+        DonorTable allDonorsTable = donorIndex.getDonorTable();
+        if (allDonorsTable.getCellType(0, 0) != CellType.STRING ||
+            !allDonorsTable.getStringCellValue(0, 0).equals("Code /")) {
 
             throw new IllegalArgumentException("The Excel file with all known donors is not valid");
         }
+        return donorIndex;
+    }
+
+    /**
+     * Fills a newly created Excel output file the current donors. The matches of all donations are found first, and
+     * the output file is only filled once the user has decided on every match. The rows are then streamed into the
+     * output file one after the other, so only a window of them is kept in memory.
+     *
+     * @throws IOException If the Excel file with all known donors can't be opened, or the output file can't be
+     *                     written. An InterruptedIOException if interrupted while waiting for the matches to be found,
+     *                     in which case the interrupt status of the thread is set again.
+     */
+    public void makeDonationList() throws IOException {
+        List<Optional<Integer>> matchRows;
+        try {
+            matchRows = findNameMatches();
+        }
+        catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the matches to be found");
+        }
 
-        this.outputSheet = outputExcel.createSheet();
+        SXSSFWorkbook outputExcel = new SXSSFWorkbook(this.rowAccessWindowSize);
+        try {
+            Sheet outputSheet = outputExcel.createSheet();
 
-        if (!FilenameUtils.isExtension(outputFile.getName(), FileFilter.EXCEL.extensions)) {
-            throw new IllegalArgumentException(
-                    "The output file does not have the correct file format (must be an Excel file)");
+            // Copy over the header row
+            insertRow(allDonorsTable, outputSheet, 0, 0);
+
+            for (int i = 0; i < this.transactions.size(); i++) {
+                TransactionType transactionType = this.transactions.getTransactionType(i);
+
+                if (transactionType == TransactionType.DEBIT) {
+                    Row outputRow = outputSheet.createRow(i + 1);
+                    insertDebitRow(i, outputRow);
+                    continue;
+                }
+
+                Optional<Integer> matchRow = matchRows.get(i);
+                if (matchRow.isPresent()) {
+                    Row outputRow = insertRow(allDonorsTable, outputSheet, matchRow.get(), i + 1);
+                    replaceAmount(outputRow, this.transactions.getAmount(i), transactionType);
+                }
+            }
+
+            writeOutputFile(outputExcel);
+        }
+        finally {
+            outputExcel.dispose();
+            outputExcel.close();
         }
     }
 
     /**
-     * Fills a newly created Excel output file the current donors.
+     * Writes the output workbook to a temporary file next to the output file, which then replaces the output file in
+     * one atomic move where the file system supports it. A crash therefore never leaves a half-written output file
+     * behind.
      *
-     * @throws IOException If the Excel file with all known donors can't be opened.
+     * @param outputExcel The filled output workbook
+     * @throws IOException if the output file can't be written
      */
-    public void makeDonationList() throws IOException {
-        // Copy over the header row
-        insertRow(allDonorsSheet, outputSheet, 0, 0);
+    private void writeOutputFile(Workbook outputExcel) throws IOException {
+        File directory = this.outputFile.getAbsoluteFile().getParentFile();
+        File temporaryFile = File.createTempFile(this.outputFile.getName(), ".tmp", directory);
 
-        for (int i = 0; i < this.transactions.size(); i++) {
-            Transaction transaction = this.transactions.get(i);
+        try {
+            try (OutputStream output = new BufferedOutputStream(Files.newOutputStream(temporaryFile.toPath()))) {
+                outputExcel.write(output);
+            }
+            try {
+                Files.move(temporaryFile.toPath(),
+                           this.outputFile.toPath(),
+                           StandardCopyOption.ATOMIC_MOVE,
+                           StandardCopyOption.REPLACE_EXISTING);
+            }
+            catch (AtomicMoveNotSupportedException exception) {
+                Files.move(temporaryFile.toPath(), this.outputFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        finally {
+            Files.deleteIfExists(temporaryFile.toPath());
+        }
+    }
 
-            if (transaction.getTransactionType() == TransactionType.DEBIT) {
-                Row outputRow = outputSheet.createRow(i + 1);
-                insertDebitRow(transaction, outputRow);
-                continue;
+    /**
+     * Finds the matches of all donations on worker threads. The matches that need to be confirmed by the user form a
+     * review queue in the order of the transactions, which the user works through while the workers are still finding
+     * the matches further down the queue. Waiting for a match therefore only takes as long as the user takes to answer,
+     * unless the workers are behind.
+     *
+     * @return For every transaction, the row on the list of all known donors it matches. Empty for debit transactions
+     * and for donations without a good match.
+     * @throws IOException          If a decision of the user can't be remembered.
+     * @throws InterruptedException If interrupted while waiting for the matches to be found.
+     */
+    private List<Optional<Integer>> findNameMatches() throws IOException, InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, this.parallelism));
+
+        try {
+            List<Future<List<Integer>>> highestMatchLists = new ArrayList<>(this.transactions.size());
+            for (int i = 0; i < this.transactions.size(); i++) {
+                if (this.transactions.getTransactionType(i) == TransactionType.DEBIT) {
+                    highestMatchLists.add(null);
+                    continue;
+                }
+                String name = this.transactions.getName(i);
+                if (this.donorIndex.findExactMatches(name).isEmpty() && findAliasMatchList(name).size() > 1) {
+                    // The user confirmed the match before, so there is no need to search for it
+                    highestMatchLists.add(CompletableFuture.completedFuture(List.of(0)));
+                    continue;
+                }
+                highestMatchLists.add(executor.submit(() -> findHighestMatchList(name)));
             }
 
-            Optional<Integer> matchRow = findNameMatch(transaction, allDonorsSheet);
-            if (matchRow.isPresent()) {
-                insertRow(allDonorsSheet, outputSheet, matchRow.get(), i + 1);
-                replaceAmount(outputSheet.getRow(i + 1), transaction.getAmount(), transaction.getTransactionType());
+            List<Optional<Integer>> matchRows = new ArrayList<>(this.transactions.size());
+            for (int i = 0; i < this.transactions.size(); i++) {
+                Future<List<Integer>> highestMatchList = highestMatchLists.get(i);
+                if (highestMatchList == null) {
+                    matchRows.add(Optional.empty());
+                    continue;
+                }
+
+                try {
+                    matchRows.add(findNameMatch(i, highestMatchList.get(), allDonorsTable));
+                }
+                catch (ExecutionException exception) {
+                    if (exception.getCause() instanceof Error) {
+                        throw (Error) exception.getCause();
+                    }
+                    throw (RuntimeException) exception.getCause();
+                }
             }
+            return matchRows;
+        }
+        finally {
+            executor.shutdownNow();
         }
-
-        FileOutputStream outputStream = new FileOutputStream(this.outputFile);
-        outputExcel.write(outputStream);
-        outputExcel.close();
     }
 
     /**
-     * Compares a given name with the list of all donors and attempts to find the best match if any. Can find a perfect
-     * match (identical strings), or can ask the user for confirmation if the fuzzy matcher natches above 70%.
+     * Decides on the best match of a given name with the list of all donors, if any. Can take a perfect match
+     * (identical strings) or a match the user confirmed before, or can ask the user for confirmation if the fuzzy
+     * matcher natches above 70%. Matches the user rejected before are skipped.
      *
-     * @param transaction    The current transaction to be compared with the list of all known donors.
-     * @param allDonorsSheet The list of all known donors.
+     * @param transactionIndex The index of the current transaction to be compared with the list of all known donors.
+     * @param highestMatchList The best matches of the name, as found by findHighestMatchList.
+     * @param allDonorsTable   The list of all known donors.
      * @return An optional integer containing the row on the list of all known donors with the best match. Empty if no
      * good match is found.
+     * @throws IOException If the decision of the user can't be remembered.
      */
-    private Optional<Integer> findNameMatch(Transaction transaction, Sheet allDonorsSheet) {
-        String name = transaction.getName();
+    private Optional<Integer> findNameMatch(int transactionIndex,
+                                            List<Integer> highestMatchList,
+                                            DonorTable allDonorsTable) throws IOException {
+        String name = this.transactions.getName(transactionIndex);
 
         Optional<Integer> result = Optional.empty();
-        // The first element of this list is the match score (101 for perfect match).
+        // The first element of highestMatchList is the match score (101 for perfect match).
         // The rest are row indexes of the matches.
-        List<Integer> highestMatchList = findHighestMatchList(name, allDonorsSheet);
         int highestScore = highestMatchList.get(0);
+        if (highestScore != 101) {
+            List<Integer> aliasMatchList = findAliasMatchList(name);
+            if (aliasMatchList.size() > 1) {
+                highestMatchList = aliasMatchList;
+                highestScore = 101;
+            }
+        }
 
         boolean perfectMatch = highestScore == 101;
         if (perfectMatch) {
             if (highestMatchList.size() > 2) {
-                result = Optional.of(handleMultipleMatches(highestMatchList, transaction.getAmount()));
+                long donatedCents = this.transactions.getCents(transactionIndex);
+                result = Optional.of(handleMultipleMatches(highestMatchList, donatedCents));
             }
             // get(1) because the highest score is in index 0. Actual row numbers start at
             // index 1.
@@ -121,12 +308,19 @@ public class DonationListMaker {
             }
         }
 
-        else if (highestScore > 70) {
+        else if (highestScore >= MINIMUM_FUZZY_SCORE) {
             for (int i = 1; i < highestMatchList.size(); i++) {
                 int matchedRow = highestMatchList.get(i);
-                String matchedName = allDonorsSheet.getRow(matchedRow).getCell(3).getStringCellValue();
+                String matchedCode = this.donorIndex.getCode(matchedRow);
+                if (this.aliasStore != null && matchedCode != null && this.aliasStore.isRejected(name, matchedCode)) {
+                    continue;
+                }
+                String matchedName = allDonorsTable.getStringCellValue(matchedRow, 3);
 
                 int response = this.dialogueBox.showNameComparisonDialogue(name, matchedName);
+                if (this.aliasStore != null && matchedCode != null) {
+                    this.aliasStore.record(name, matchedCode, response == JOptionPane.YES_OPTION);
+                }
 
                 if (response == JOptionPane.YES_OPTION) {
                     return Optional.of(matchedRow);
@@ -137,45 +331,62 @@ public class DonationListMaker {
         return result;
     }
 
+    /**
+     * Looks up the donor the user confirmed a name to be before, by the donor's code.
+     *
+     * @param currentDonorName The name on the bank statement.
+     * @return A list of Integers like the one of findHighestMatchList, with the score of a perfect match followed by
+     * the rows of the donor, or just a score of 0 if the user didn't confirm the name before or the donor is no longer
+     * on the list of all known donors.
+     */
+    private List<Integer> findAliasMatchList(String currentDonorName) {
+        List<Integer> matchedRows = new ArrayList<>();
+        Optional<String> donorCode = (this.aliasStore != null)
+                                     ? this.aliasStore.findConfirmedDonorCode(currentDonorName)
+                                     : Optional.empty();
+        if (donorCode.isPresent()) {
+            matchedRows.addAll(this.donorIndex.findRowsByCode(donorCode.get()));
+        }
+        matchedRows.add(0, matchedRows.isEmpty() ? 0 : 101);
+        return matchedRows;
+    }
+
     /**
      * This method compares the names on the bank statement to the names on the list of all known donors and finds the
-     * best match(es) using fuzzy string comparison.
+     * best match(es). Exact matches are looked up in the donor index, and only if there are none, the names are
+     * compared using fuzzy string comparison, scored like FuzzySearch.tokenSortRatio. Only the names the donor index
+     * finds to possibly score above 70 are compared, and each only as far as needed to know if it scores at least as
+     * high as the best match so far, since lower scores never lead to a match. Best scores of 70 or less are therefore
+     * reported as 0, without any rows.
+     * <p>
+     * This method only reads the donor index, so it can be run on several worker threads at the same time.
      *
-     * @param currentDonorName   The Name of the current donor that we are going to try to find a match for.
-     * @param allKnownDonorsList The Excel list of all known donors.
+     * @param currentDonorName The Name of the current donor that we are going to try to find a match for.
      * @return A list of Integers. The first item is the best score found. The next items and the indices of the rows of
      * the best matched names on the list of all known donors.
      */
-    private List<Integer> findHighestMatchList(String currentDonorName, Sheet allKnownDonorsList) {
+    private List<Integer> findHighestMatchList(String currentDonorName) {
+        List<Integer> exactMatches = this.donorIndex.findExactMatches(currentDonorName);
+        if (!exactMatches.isEmpty()) {
+            List<Integer> matchedRows = new ArrayList<>(exactMatches.size() + 1);
+            // 101 means perfect match
+            matchedRows.add(101);
+            matchedRows.addAll(exactMatches);
+            return matchedRows;
+        }
+
         int highestScore = 0;
         List<Integer> matchedRows = new ArrayList<>();
+        currentDonorName = currentDonorName.trim();
+        TokenSortMatcher matcher = new TokenSortMatcher(currentDonorName);
 
-        for (int i = 1; i < allKnownDonorsList.getLastRowNum(); i++) {
-            Row row = allKnownDonorsList.getRow(i);
-
-            if (row == null) {
-                continue;
-            }
-            Cell nameCell = row.getCell(3);
-            if (nameCell == null) {
+        for (int i : this.donorIndex.findFuzzyCandidates(currentDonorName, MINIMUM_FUZZY_SCORE)) {
+            int minimumScore = Math.max(highestScore, MINIMUM_FUZZY_SCORE);
+            int score = matcher.score(this.donorIndex.getTokenSortedForm(i), minimumScore);
+            if (score < 0 || score > 90) {
                 continue;
             }
 
-            String knownDonorsName = nameCell.getStringCellValue().trim();
-            currentDonorName = currentDonorName.trim();
-
-            int score;
-            if (currentDonorName.equals(knownDonorsName)) {
-                // 101 means perfect match
-                score = 101;
-            }
-            else {
-                score = (FuzzySearch.tokenSortRatio(currentDonorName, knownDonorsName));
-                if (score > 90) {
-                    continue;
-                }
-            }
-
             if (score == highestScore) {
                 matchedRows.add(i);
             }
@@ -194,14 +405,13 @@ public class DonationListMaker {
      * amounts. If none are found with the same amount, the method just returns the index if the first match.
      *
      * @param highestMatchScoreList List of rows with the highest match scores
+     * @param donatedCents          The amount of the transaction in cents
      * @return The match where the donated amount is the same or the first index in the match list if none are found
      */
-    private int handleMultipleMatches(List<Integer> highestMatchScoreList, String donatedAmount) {
+    private int handleMultipleMatches(List<Integer> highestMatchScoreList, long donatedCents) {
         for (int i = 1; i < highestMatchScoreList.size(); i++) {
             int rowIndex = highestMatchScoreList.get(i);
-            Row row = this.allDonorsSheet.getRow(rowIndex);
-            double savedAmount = row.getCell(6).getNumericCellValue();
-            if (donatedAmount.equals(String.valueOf(savedAmount))) {
+            if (this.donorIndex.hasAmount(rowIndex, donatedCents)) {
                 return rowIndex;
             }
         }
@@ -212,34 +422,30 @@ public class DonationListMaker {
     /**
      * Copies a row from the list of all donors into the newly created Excel file.
      *
-     * @param allDonorsSheet  The list of all known donors.
+     * @param allDonorsTable  The list of all known donors.
      * @param outputSheet     The newly created output Excel sheet.
      * @param matchRowNumber  The number of the row to be copied.
      * @param outputRowNumber The number of the row to be copies into.
+     * @return The newly created row in the output sheet.
      */
-    private void insertRow(Sheet allDonorsSheet, Sheet outputSheet, int matchRowNumber, int outputRowNumber) {
+    private Row insertRow(DonorTable allDonorsTable, Sheet outputSheet, int matchRowNumber, int outputRowNumber) {
 
-        Row matchRow = allDonorsSheet.getRow(matchRowNumber);
         Row outputRow = outputSheet.createRow(outputRowNumber);
 
-        for (int i = 0; i < matchRow.getLastCellNum(); i++) {
-            Cell matchCell = matchRow.getCell(i);
+        for (int i = 0; i < allDonorsTable.getCellCount(matchRowNumber); i++) {
             Cell outputCell = outputRow.createCell(i);
 
-            if (matchCell == null) {
-                continue;
-            }
-
-            switch (matchCell.getCellType()) {
+            switch (allDonorsTable.getCellType(matchRowNumber, i)) {
 
                 case NUMERIC:
-                    outputCell.setCellValue(matchCell.getNumericCellValue());
+                    outputCell.setCellValue(allDonorsTable.getNumericCellValue(matchRowNumber, i));
                     break;
                 case STRING:
-                    outputCell.setCellValue(matchCell.getStringCellValue());
+                    outputCell.setCellValue(allDonorsTable.getStringCellValue(matchRowNumber, i));
                     break;
             }
         }
+        return outputRow;
     }
 
     /**
@@ -249,23 +455,23 @@ public class DonationListMaker {
      * @param amount          The actual amount in the transaction
      * @param transactionType The type of transaction: CREDIT or DEBIT
      */
-    private void replaceAmount(Row outputRow, String amount, TransactionType transactionType) {
+    private void replaceAmount(Row outputRow, Money amount, TransactionType transactionType) {
         switch (transactionType) {
             case CREDIT:
                 Cell creditCell = outputRow.getCell(6);
-                creditCell.setCellValue(amount);
+                creditCell.setCellValue(amount.toDouble());
 
                 // Loop over donation purposes to replace the amount there as well
                 for (int i = 7; i < outputRow.getLastCellNum(); i++) {
                     if (outputRow.getCell(i).getCellType() != CellType.BLANK) {
-                        outputRow.getCell(i).setCellValue(amount);
+                        outputRow.getCell(i).setCellValue(amount.toDouble());
                     }
                 }
                 break;
 
             case DEBIT:
                 Cell debitCell = outputRow.getCell(7);
-                debitCell.setCellValue(amount);
+                debitCell.setCellValue(amount.toDouble());
                 break;
         }
     }
@@ -273,14 +479,14 @@ public class DonationListMaker {
     /**
      * Inserts a new row into the output file in the case of a debit transaction
      *
-     * @param transaction The transaction inserted into the output file
-     * @param outputRow   The row where the transaction should be inserted
+     * @param transactionIndex The index of the transaction inserted into the output file
+     * @param outputRow        The row where the transaction should be inserted
      */
-    private void insertDebitRow(Transaction transaction, Row outputRow) {
+    private void insertDebitRow(int transactionIndex, Row outputRow) {
         Cell nameCell = outputRow.createCell(3, CellType.STRING);
         Cell amountCell = outputRow.createCell(7, CellType.NUMERIC);
 
-        nameCell.setCellValue(transaction.getName());
-        amountCell.setCellValue(transaction.getAmount());
+        nameCell.setCellValue(this.transactions.getName(transactionIndex));
+        amountCell.setCellValue(this.transactions.getAmount(transactionIndex).toDouble());
     }
 }
\ No newline at end of file
@@ -0,0 +1,524 @@
+package donationmanager;
+
+import org.apache.poi.ss.usermodel.Sheet;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The codes, names and amounts of the list of all known donors, read out of the sheet once. Names and codes are looked
+ * up by their trimmed text, so exact matches are found without going over all rows, and the amounts are kept as
+ * cents.
+ * <p>
+ * For fuzzy matching, the names are also indexed by their characters, to find the few names that can possibly reach a
+ * given token sort ratio without comparing all of them. See findFuzzyCandidates for how.
+ * <p>
+ * Like the matching of names always did, the index covers the rows from the one after the header row up to, but not
+ * including, the last row of the sheet.
+ * <p>
+ * An index can be written into a DonorSnapshot together with its donor table, and read back without processing the
+ * names again.
+ */
+public class DonorIndex {
+    private static final int CODE_COLUMN = 0;
+    private static final int NAME_COLUMN = 3;
+    private static final int AMOUNT_COLUMN = 6;
+    private static final long NO_AMOUNT = Long.MIN_VALUE;
+
+    private final DonorTable donorTable;
+    // The trimmed name of every row, or null if the row has no name cell
+    private final String[] names;
+    // The amount of every row in cents, or NO_AMOUNT if the row has no numeric amount cell
+    private final long[] cents;
+    private final Map<String, List<Integer>> rowsByName = new HashMap<>();
+    // The trimmed donor code of every row, or null if the row has no code
+    private final String[] codes;
+    private final Map<String, List<Integer>> rowsByCode = new HashMap<>();
+    // The token sorted form of every name, which the token sort ratio compares, or null if the row has no name
+    private final String[] tokenSortedForms;
+    // The characters of every token sorted form, sorted, or null if the row has no name
+    private final char[][] sortedChars;
+    // The rows holding each character gram, in ascending order. See makeGram.
+    private final Map<Integer, PostingList> postingLists = new HashMap<>();
+
+    private DonorIndex(DonorTable donorTable) {
+        int endRowNumber = Math.max(donorTable.getLastRowNumber(), 0);
+        this.donorTable = donorTable;
+        this.names = new String[endRowNumber];
+        this.cents = new long[endRowNumber];
+        this.codes = new String[endRowNumber];
+        this.tokenSortedForms = new String[endRowNumber];
+        this.sortedChars = new char[endRowNumber][];
+        Arrays.fill(this.cents, NO_AMOUNT);
+    }
+
+    /**
+     * Reads the codes, names and amounts of all known donors out of a sheet.
+     *
+     * @param allDonorsSheet The list of all known donors
+     * @return the index of the donors
+     * @throws IllegalStateException if a name cell doesn't hold text
+     */
+    public static DonorIndex of(Sheet allDonorsSheet) {
+        return of(DonorTable.of(allDonorsSheet));
+    }
+
+    /**
+     * Reads the codes, names and amounts of all known donors out of a donor table.
+     *
+     * @param donorTable The list of all known donors
+     * @return the index of the donors
+     * @throws IllegalStateException if a name cell doesn't hold text
+     */
+    public static DonorIndex of(DonorTable donorTable) {
+        return build(donorTable, new String[0], true);
+    }
+
+    /**
+     * Reads the codes, names and amounts of all known donors out of a donor table that is a changed version of the
+     * table of a previous index. Only the rows whose hash differs from every row of the previous table are processed
+     * again. The names and character grams of the unchanged rows, wherever they are now, are taken over from the
+     * previous index.
+     *
+     * @param donorTable    The list of all known donors
+     * @param previousIndex The index of a previous version of the list
+     * @return the index of the donors
+     * @throws IllegalStateException if a name cell doesn't hold text
+     */
+    public static DonorIndex of(DonorTable donorTable, DonorIndex previousIndex) {
+        DonorTable previousTable = previousIndex.donorTable;
+        Map<Long, Integer> previousRowsByHash = new HashMap<>();
+        for (int i = 1; i < previousIndex.names.length; i++) {
+            if (previousIndex.names[i] != null) {
+                previousRowsByHash.putIfAbsent(previousTable.hashRow(i), i);
+            }
+        }
+
+        String[] tokenSortedForms = new String[Math.max(donorTable.getLastRowNumber(), 0)];
+        // The row every previous row that is unchanged is now in, or -1
+        int[] movedRows = new int[previousIndex.names.length];
+        Arrays.fill(movedRows, -1);
+        for (int i = 1; i < tokenSortedForms.length; i++) {
+            // Every previous row is taken over at most once, so equal rows further down are processed again
+            Integer previousRow = previousRowsByHash.remove(donorTable.hashRow(i));
+            // The names are compared as well, since different rows can have the same hash
+            if (previousRow != null && donorTable.hasCell(i, NAME_COLUMN) &&
+                previousIndex.names[previousRow].equals(donorTable.getStringCellValue(i, NAME_COLUMN).trim())) {
+
+                tokenSortedForms[i] = previousIndex.tokenSortedForms[previousRow];
+                movedRows[previousRow] = i;
+            }
+        }
+
+        DonorIndex donorIndex = build(donorTable, tokenSortedForms, false);
+        donorIndex.moveGrams(previousIndex, movedRows);
+
+        Map<Integer, PostingList> addedPostingLists = new HashMap<>();
+        for (int i = 1; i < donorIndex.names.length; i++) {
+            if (donorIndex.names[i] != null && tokenSortedForms[i] == null) {
+                donorIndex.addGrams(addedPostingLists, i);
+            }
+        }
+        for (Map.Entry<Integer, PostingList> entry : addedPostingLists.entrySet()) {
+            donorIndex.postingLists.merge(entry.getKey(), entry.getValue(), PostingList::merge);
+        }
+        return donorIndex;
+    }
+
+    /**
+     * Reads an index written by writeTo.
+     *
+     * @param buffer     The buffer holding the index, at its position
+     * @param donorTable The donor table the index was made of
+     * @return the index of the donors
+     */
+    static DonorIndex readFrom(ByteBuffer buffer, DonorTable donorTable) {
+        String[] tokenSortedForms = new String[buffer.getInt()];
+        for (int i = 0; i < tokenSortedForms.length; i++) {
+            tokenSortedForms[i] = DonorSnapshot.readString(buffer);
+        }
+        DonorIndex donorIndex = build(donorTable, tokenSortedForms, false);
+
+        int gramCount = buffer.getInt();
+        for (int i = 0; i < gramCount; i++) {
+            int gram = buffer.getInt();
+            PostingList postingList = new PostingList();
+            postingList.size = buffer.getInt();
+            postingList.rows = new int[postingList.size];
+            buffer.asIntBuffer().get(postingList.rows);
+            buffer.position(buffer.position() + 4 * postingList.size);
+            donorIndex.postingLists.put(gram, postingList);
+        }
+        return donorIndex;
+    }
+
+    /**
+     * Writes the processed names and the character grams of the index, which are what takes time to make. The rest is
+     * read out of the donor table again.
+     *
+     * @param output The output stream
+     * @throws IOException if writing fails
+     */
+    void writeTo(DataOutputStream output) throws IOException {
+        output.writeInt(this.tokenSortedForms.length);
+        for (String tokenSortedForm : this.tokenSortedForms) {
+            DonorSnapshot.writeString(output, tokenSortedForm);
+        }
+
+        output.writeInt(this.postingLists.size());
+        for (Map.Entry<Integer, PostingList> entry : this.postingLists.entrySet()) {
+            output.writeInt(entry.getKey());
+            output.writeInt(entry.getValue().size);
+            for (int i = 0; i < entry.getValue().size; i++) {
+                output.writeInt(entry.getValue().rows[i]);
+            }
+        }
+    }
+
+    /**
+     * Reads the codes, names and amounts of all known donors out of a donor table.
+     *
+     * @param donorTable       The list of all known donors
+     * @param tokenSortedForms The token sorted forms of the names that are known already, by row
+     * @param addGrams         Whether the character grams of the names are to be added to the index
+     * @return the index of the donors
+     */
+    private static DonorIndex build(DonorTable donorTable, String[] tokenSortedForms, boolean addGrams) {
+        DonorIndex donorIndex = new DonorIndex(donorTable);
+
+        for (int i = 1; i < donorIndex.names.length; i++) {
+            if (!donorTable.hasRow(i)) {
+                continue;
+            }
+
+            String code = readCode(donorTable, i);
+            if (code != null) {
+                donorIndex.codes[i] = code;
+                donorIndex.rowsByCode.computeIfAbsent(code, key -> new ArrayList<>(1)).add(i);
+            }
+
+            if (donorTable.hasCell(i, NAME_COLUMN)) {
+                String name = donorTable.getStringCellValue(i, NAME_COLUMN).trim();
+                donorIndex.names[i] = name;
+                donorIndex.rowsByName.computeIfAbsent(name, key -> new ArrayList<>(1)).add(i);
+                String tokenSortedForm = (i < tokenSortedForms.length && tokenSortedForms[i] != null)
+                                         ? tokenSortedForms[i]
+                                         : TokenSortMatcher.makeTokenSortedForm(name);
+                donorIndex.addTokenSortedForm(i, tokenSortedForm);
+                if (addGrams) {
+                    donorIndex.addGrams(donorIndex.postingLists, i);
+                }
+            }
+
+            if (donorTable.hasCell(i, AMOUNT_COLUMN)) {
+                try {
+                    donorIndex.cents[i] = Money.of(donorTable.getNumericCellValue(i, AMOUNT_COLUMN)).getCents();
+                }
+                catch (IllegalStateException | NumberFormatException exception) {
+                    // Amounts that aren't numbers never match the amount of a transaction
+                }
+            }
+        }
+        return donorIndex;
+    }
+
+    /**
+     * Finds the rows whose name is exactly the given name, apart from leading and trailing whitespace.
+     *
+     * @param name The name to be looked up
+     * @return the row numbers of the matching rows in ascending order, or an empty list if there are none
+     */
+    public List<Integer> findExactMatches(String name) {
+        return this.rowsByName.getOrDefault(name.trim(), List.of());
+    }
+
+    /**
+     * Finds the rows of a donor.
+     *
+     * @param code The code of the donor
+     * @return the row numbers of the rows with this code in ascending order, or an empty list if there are none
+     */
+    public List<Integer> findRowsByCode(String code) {
+        return this.rowsByCode.getOrDefault(code.trim(), List.of());
+    }
+
+    /**
+     * Finds the rows whose names can reach a minimum token sort ratio with the given name. The result holds every row
+     * that reaches it, and usually only few more, so the token sort ratio only needs to be computed for those.
+     * <p>
+     * The token sort ratio compares the processed, token sorted forms of both names, and is 200 * L / T rounded,
+     * where L is the length of their longest common subsequence and T the sum of their lengths. L can't be larger
+     * than the number of characters both forms have in common, counted with repetition. Every form is therefore
+     * indexed by its character grams, where the k-th occurrence of a character is a gram of its own, so that the
+     * number of grams two forms share is exactly that number of common characters. A row can only reach the ratio if
+     * it shares enough grams, and since it has to share at least a minimum number of them, it has to share one of the
+     * rarest grams of the name as well. Only the rows of those rarest grams are looked at.
+     *
+     * @param name         The name to be matched
+     * @param minimumScore The minimum token sort ratio, from 1 to 100
+     * @return the row numbers of the candidates, in ascending order
+     */
+    public int[] findFuzzyCandidates(String name, int minimumScore) {
+        char[] chars = TokenSortMatcher.makeTokenSortedForm(name).toCharArray();
+        int length = chars.length;
+        if (length == 0) {
+            // An empty form has a ratio of 0 with every name
+            return new int[0];
+        }
+        Arrays.sort(chars);
+
+        // A row reaches the minimum score if 400 * L >= scoreFactor * T, with T being length + the length of the row
+        int scoreFactor = 2 * minimumScore - 1;
+        int remainingFactor = 400 - scoreFactor;
+        long minimumRowLength = ceilDiv((long) scoreFactor * length, remainingFactor);
+        long maximumRowLength = ((long) remainingFactor * length) / scoreFactor;
+        long minimumSharedGrams = ceilDiv((long) scoreFactor * (length + minimumRowLength), 400);
+
+        // Only the rarest grams of the name need to be looked at, since every candidate has to share one of them
+        PostingList[] gramPostingLists = new PostingList[length];
+        for (int i = 0; i < length; i++) {
+            int occurrence = (i > 0 && chars[i] == chars[i - 1]) ? makeOccurrence(chars, i) : 1;
+            PostingList postingList = this.postingLists.get(makeGram(chars[i], occurrence));
+            gramPostingLists[i] = (postingList == null) ? PostingList.EMPTY : postingList;
+        }
+        Arrays.sort(gramPostingLists, (first, second) -> Integer.compare(first.size, second.size));
+
+        int rarestGrams = (int) Math.max(0, length - minimumSharedGrams + 1);
+        int candidateCount = 0;
+        for (int i = 0; i < rarestGrams; i++) {
+            candidateCount += gramPostingLists[i].size;
+        }
+        int[] candidates = new int[candidateCount];
+        candidateCount = 0;
+        for (int i = 0; i < rarestGrams; i++) {
+            System.arraycopy(gramPostingLists[i].rows, 0, candidates, candidateCount, gramPostingLists[i].size);
+            candidateCount += gramPostingLists[i].size;
+        }
+        Arrays.sort(candidates);
+
+        int resultCount = 0;
+        for (int i = 0; i < candidateCount; i++) {
+            int row = candidates[i];
+            if (i > 0 && row == candidates[i - 1]) {
+                continue;
+            }
+
+            char[] rowChars = this.sortedChars[row];
+            if (rowChars.length < minimumRowLength || rowChars.length > maximumRowLength) {
+                continue;
+            }
+            long sharedGrams = countCommonChars(chars, rowChars);
+            if (400 * sharedGrams >= (long) scoreFactor * (length + rowChars.length)) {
+                candidates[resultCount++] = row;
+            }
+        }
+        return Arrays.copyOf(candidates, resultCount);
+    }
+
+    /**
+     * @return the donor table the index was made of
+     */
+    public DonorTable getDonorTable() {
+        return this.donorTable;
+    }
+
+    /**
+     * @return the number after the last row covered by the index
+     */
+    public int getEndRowNumber() {
+        return this.names.length;
+    }
+
+    /**
+     * @param rowNumber The row number
+     * @return the trimmed name of the row, or null if the row has no name
+     */
+    public String getName(int rowNumber) {
+        return this.names[rowNumber];
+    }
+
+    /**
+     * @param rowNumber The row number
+     * @return the trimmed donor code of the row, or null if the row has no code
+     */
+    public String getCode(int rowNumber) {
+        return this.codes[rowNumber];
+    }
+
+    /**
+     * @param rowNumber The row number
+     * @return the name of the row in the token sorted form that TokenSortMatcher compares, or null if the row has no
+     * name
+     */
+    public String getTokenSortedForm(int rowNumber) {
+        return this.tokenSortedForms[rowNumber];
+    }
+
+    /**
+     * Checks if the amount of a row is the given amount.
+     *
+     * @param rowNumber The row number
+     * @param cents     The amount in cents
+     * @return true if the row holds this amount
+     */
+    public boolean hasAmount(int rowNumber, long cents) {
+        return this.cents[rowNumber] != NO_AMOUNT && this.cents[rowNumber] == cents;
+    }
+
+    /**
+     * Reads a donor code, which can be text or a whole number.
+     *
+     * @return the trimmed code, or null if the row holds no code
+     */
+    private static String readCode(DonorTable donorTable, int rowNumber) {
+        String code;
+        switch (donorTable.getCellType(rowNumber, CODE_COLUMN)) {
+            case STRING:
+                code = donorTable.getStringCellValue(rowNumber, CODE_COLUMN).trim();
+                break;
+            case NUMERIC:
+                double number = donorTable.getNumericCellValue(rowNumber, CODE_COLUMN);
+                code = (number == Math.rint(number)) ? Long.toString((long) number) : Double.toString(number);
+                break;
+            default:
+                return null;
+        }
+        return code.isEmpty() ? null : code;
+    }
+
+    private void addTokenSortedForm(int rowNumber, String tokenSortedForm) {
+        this.tokenSortedForms[rowNumber] = tokenSortedForm;
+        char[] chars = tokenSortedForm.toCharArray();
+        Arrays.sort(chars);
+        this.sortedChars[rowNumber] = chars;
+    }
+
+    private void addGrams(Map<Integer, PostingList> postingLists, int rowNumber) {
+        char[] chars = this.sortedChars[rowNumber];
+        for (int i = 0; i < chars.length; i++) {
+            int occurrence = (i > 0 && chars[i] == chars[i - 1]) ? makeOccurrence(chars, i) : 1;
+            postingLists.computeIfAbsent(makeGram(chars[i], occurrence), key -> new PostingList()).add(rowNumber);
+        }
+    }
+
+    /**
+     * Takes over the posting lists of a previous index, with the rows that are unchanged moved to the rows they are in
+     * now and the other rows left out.
+     *
+     * @param previousIndex The previous index
+     * @param movedRows     The row every previous row is now in, or -1 if it has changed
+     */
+    private void moveGrams(DonorIndex previousIndex, int[] movedRows) {
+        // Rows that were only inserted or removed keep their order, so the posting lists only need sorting if rows
+        // were reordered
+        boolean ascending = true;
+        int lastRow = 0;
+        for (int row : movedRows) {
+            if (row >= 0) {
+                ascending &= row > lastRow;
+                lastRow = row;
+            }
+        }
+
+        for (Map.Entry<Integer, PostingList> entry : previousIndex.postingLists.entrySet()) {
+            PostingList previousPostingList = entry.getValue();
+            PostingList postingList = new PostingList();
+            postingList.rows = new int[previousPostingList.size];
+            for (int i = 0; i < previousPostingList.size; i++) {
+                int row = movedRows[previousPostingList.rows[i]];
+                if (row >= 0) {
+                    postingList.rows[postingList.size++] = row;
+                }
+            }
+
+            if (postingList.size > 0) {
+                if (!ascending) {
+                    Arrays.sort(postingList.rows, 0, postingList.size);
+                }
+                this.postingLists.put(entry.getKey(), postingList);
+            }
+        }
+    }
+
+    /**
+     * Makes the gram of the given occurrence of a character. The first 'a' of a name is a different gram than its
+     * second 'a'.
+     */
+    private static int makeGram(char c, int occurrence) {
+        return (Math.min(occurrence, 0xFFFF) << 16) | c;
+    }
+
+    /**
+     * Counts how often the character at an index of sorted characters occurs up to and including that index.
+     */
+    private static int makeOccurrence(char[] sortedChars, int index) {
+        int first = index;
+        while (first > 0 && sortedChars[first - 1] == sortedChars[index]) {
+            first--;
+        }
+        return index - first + 1;
+    }
+
+    private static int countCommonChars(char[] first, char[] second) {
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < first.length && j < second.length) {
+            if (first[i] == second[j]) {
+                count++;
+                i++;
+                j++;
+            }
+            else if (first[i] < second[j]) {
+                i++;
+            }
+            else {
+                j++;
+            }
+        }
+        return count;
+    }
+
+    private static long ceilDiv(long dividend, long divisor) {
+        return (dividend + divisor - 1) / divisor;
+    }
+
+    /**
+     * The rows holding a gram, in the ascending order they were added in.
+     */
+    private static class PostingList {
+        private static final PostingList EMPTY = new PostingList();
+
+        private int[] rows = new int[4];
+        private int size;
+
+        void add(int row) {
+            if (this.size == this.rows.length) {
+                this.rows = Arrays.copyOf(this.rows, Math.max(4, 2 * this.size));
+            }
+            this.rows[this.size++] = row;
+        }
+
+        static PostingList merge(PostingList first, PostingList second) {
+            PostingList merged = new PostingList();
+            merged.rows = new int[first.size + second.size];
+            int i = 0;
+            int j = 0;
+            while (i < first.size || j < second.size) {
+                if (j == second.size || (i < first.size && first.rows[i] < second.rows[j])) {
+                    merged.rows[merged.size++] = first.rows[i++];
+                }
+                else {
+                    merged.rows[merged.size++] = second.rows[j++];
+                }
+            }
+            return merged;
+        }
+    }
+}
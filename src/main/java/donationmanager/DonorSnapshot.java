@@ -0,0 +1,196 @@
+package donationmanager;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+
+/**
+ * An on-disk snapshot of the list of all known donors, so that the donor workbook, which changes only a few times a
+ * year, doesn't have to be read and indexed again on every run. The snapshot holds the donor table together with the
+ * processed names and character grams of its donor index, in a compact binary format that is read back into memory in
+ * one go, without parsing the workbook or processing the names again.
+ * <p>
+ * A snapshot is only used for the workbook it was made of. If the size and the modification time of the workbook are
+ * the same as when the snapshot was made, the snapshot is used right away. Otherwise the workbook is hashed, and if
+ * its content has changed after all, it is read again, but the names of the rows that are unchanged are taken over
+ * from the snapshot instead of being processed again. See DonorIndex.of(DonorTable, DonorIndex).
+ */
+public class DonorSnapshot {
+    private static final int MAGIC_NUMBER = 0x444D4453;
+    private static final int FORMAT_VERSION = 2;
+    private static final String FILE_EXTENSION = ".donors";
+    private static final int NULL_STRING = -1;
+
+    /**
+     * The directory used for snapshots if no other directory is chosen.
+     */
+    public static final File DEFAULT_DIRECTORY = new File(System.getProperty("user.home"),
+                                                          ".donation-manager" + File.separator + "donors");
+
+    private final File directory;
+
+    /**
+     * @param directory The directory the snapshots are stored in. Created if it doesn't exist yet.
+     */
+    public DonorSnapshot(File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Loads the list of all known donors from the snapshot of a donor workbook if it is up to date, or else from the
+     * workbook itself, in which case a new snapshot is made of it. The snapshot is only a cache, so if it can't be
+     * written, the donors are still returned.
+     *
+     * @param allDonorsFile The donor workbook
+     * @return the index of the donors, which holds the donor table as well
+     * @throws IOException if the donor workbook can't be read
+     */
+    public DonorIndex load(File allDonorsFile) throws IOException {
+        File file = getFile(allDonorsFile);
+        long length = allDonorsFile.length();
+        long lastModified = allDonorsFile.lastModified();
+
+        Optional<Snapshot> snapshot = read(file, allDonorsFile);
+        if (snapshot.isPresent() && snapshot.get().length == length && snapshot.get().lastModified == lastModified) {
+            return snapshot.get().donorIndex;
+        }
+
+        String contentHash = ContentHash.of(allDonorsFile);
+        DonorIndex donorIndex;
+        if (snapshot.isPresent() && snapshot.get().contentHash.equals(contentHash)) {
+            // Only the modification time of the workbook has changed
+            donorIndex = snapshot.get().donorIndex;
+        }
+        else {
+            DonorTable donorTable = DonorTable.load(allDonorsFile);
+            donorIndex = snapshot.isPresent() ? DonorIndex.of(donorTable, snapshot.get().donorIndex)
+                                              : DonorIndex.of(donorTable);
+        }
+
+        try {
+            write(file, allDonorsFile, length, lastModified, contentHash, donorIndex);
+        }
+        catch (IOException exception) {
+            System.err.printf("Could not save the snapshot of the donors: %s%n", exception.getMessage());
+        }
+        return donorIndex;
+    }
+
+    /**
+     * Reads the snapshot of a donor workbook. The whole snapshot is read into memory in one go, and the donor table
+     * and index are decoded from there, so the file isn't held open and can be overwritten right away.
+     *
+     * @return the snapshot, or an empty Optional if there is none or it can't be read
+     */
+    private static Optional<Snapshot> read(File file, File allDonorsFile) {
+        if (!file.isFile()) {
+            return Optional.empty();
+        }
+
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+            if (buffer.getInt() != MAGIC_NUMBER || buffer.getInt() != FORMAT_VERSION ||
+                !allDonorsFile.getAbsolutePath().equals(readString(buffer))) {
+
+                return Optional.empty();
+            }
+
+            Snapshot snapshot = new Snapshot();
+            snapshot.length = buffer.getLong();
+            snapshot.lastModified = buffer.getLong();
+            snapshot.contentHash = readString(buffer);
+
+            DonorTable donorTable = DonorTable.readFrom(buffer);
+            snapshot.donorIndex = DonorIndex.readFrom(buffer, donorTable);
+            return Optional.of(snapshot);
+        }
+        catch (IOException | RuntimeException exception) {
+            // A corrupt or truncated snapshot is treated like a missing one and will be overwritten
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Writes the snapshot of a donor workbook. The snapshot is written to a temporary file first, so a crash never
+     * leaves a half-written snapshot behind.
+     */
+    private void write(File file,
+                       File allDonorsFile,
+                       long length,
+                       long lastModified,
+                       String contentHash,
+                       DonorIndex donorIndex) throws IOException {
+
+        Files.createDirectories(this.directory.toPath());
+        File temporaryFile = File.createTempFile(file.getName(), ".tmp", this.directory);
+
+        try {
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(
+                    temporaryFile.toPath())))) {
+                output.writeInt(MAGIC_NUMBER);
+                output.writeInt(FORMAT_VERSION);
+                writeString(output, allDonorsFile.getAbsolutePath());
+                output.writeLong(length);
+                output.writeLong(lastModified);
+                writeString(output, contentHash);
+                donorIndex.getDonorTable().writeTo(output);
+                donorIndex.writeTo(output);
+            }
+            Files.move(temporaryFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        finally {
+            Files.deleteIfExists(temporaryFile.toPath());
+        }
+    }
+
+    /**
+     * Writes a string that may be null as its length in UTF-8 bytes followed by the bytes.
+     */
+    static void writeString(DataOutputStream output, String string) throws IOException {
+        if (string == null) {
+            output.writeInt(NULL_STRING);
+            return;
+        }
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    /**
+     * Reads a string written by writeString.
+     *
+     * @throws BufferUnderflowException if the buffer ends before the string
+     */
+    static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length == NULL_STRING) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Names the snapshot of a donor workbook after a hash of its path, so that every workbook has a snapshot of its
+     * own.
+     */
+    private File getFile(File allDonorsFile) {
+        String path = allDonorsFile.getAbsolutePath();
+        return new File(this.directory, String.format("%08x", path.hashCode()) + FILE_EXTENSION);
+    }
+
+    private static class Snapshot {
+        private long length;
+        private long lastModified;
+        private String contentHash;
+        private DonorIndex donorIndex;
+    }
+}
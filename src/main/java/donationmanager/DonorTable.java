@@ -0,0 +1,506 @@
+package donationmanager;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * The cell values of the list of all known donors. The donor workbook is read as a stream of XML events, straight into
+ * a few flat arrays, without building a workbook object of it first. Only text and numbers are kept as they are, the
+ * results of formulas are kept as the text or number they evaluated to, and the cells holding anything else are kept
+ * as BOOLEAN, ERROR or BLANK cells without their value.
+ * <p>
+ * Like a Sheet, a DonorTable tells rows and cells that don't exist apart from blank ones. Only blank cells to the right
+ * of every column that has held a value so far are left out, unless a cell with a value follows them in the same row,
+ * so that a single formatted cell far to the right doesn't make its row as wide as the whole sheet.
+ */
+public class DonorTable {
+    /**
+     * The name of the sheet that is read if the workbook has one, otherwise the first sheet is read.
+     */
+    public static final String DONORS_SHEET_NAME = "ACTIVE DONORS  2022";
+
+    private static final CellType[] CELL_TYPES = CellType.values();
+    private static final byte NO_CELL = -1;
+    private static final int NO_ROW = -1;
+    private static final int INITIAL_ROWS = 256;
+
+    // The cells of every row are stored from the row's start up to the next row's start
+    private int[] rowStarts = new int[INITIAL_ROWS + 1];
+    private boolean[] rowExists = new boolean[INITIAL_ROWS];
+    private int lastRowNumber = NO_ROW;
+    // The CellType ordinal of every cell, or NO_CELL
+    private byte[] cellTypes = new byte[INITIAL_ROWS * 8];
+    private double[] numbers = new double[INITIAL_ROWS * 8];
+    private String[] texts = new String[INITIAL_ROWS * 8];
+    private int cellCount;
+    private int lastUsedColumn = -1;
+    // The blank cells of the current row to the right of lastUsedColumn, which are only added if a value follows them
+    private int[] heldBackBlanks = new int[16];
+    private int heldBackBlankCount;
+
+    private DonorTable() {
+    }
+
+    /**
+     * Reads the list of all known donors out of a workbook file.
+     *
+     * @param file The donor workbook
+     * @return the cell values of the list of all known donors
+     * @throws IOException if the file doesn't exist or can't be read
+     */
+    public static DonorTable load(File file) throws IOException {
+        if (!file.isFile()) {
+            throw new FileNotFoundException(String.format("The file %s does not exist", file));
+        }
+
+        try (OPCPackage workbook = OPCPackage.open(file, PackageAccess.READ)) {
+            XSSFReader reader = new XSSFReader(workbook);
+            ReadOnlySharedStringsTable sharedStrings = new ReadOnlySharedStringsTable(workbook, false);
+
+            PackagePart sheetPart = null;
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+            while (sheets.hasNext()) {
+                sheets.next().close();
+                if (sheetPart == null || DONORS_SHEET_NAME.equals(sheets.getSheetName())) {
+                    sheetPart = sheets.getSheetPart();
+                }
+            }
+            if (sheetPart == null) {
+                throw new IOException(String.format("The file %s has no sheets", file));
+            }
+
+            DonorTable donorTable = new DonorTable();
+            try (InputStream sheet = sheetPart.getInputStream()) {
+                XMLReader xmlReader = XMLHelper.newXMLReader();
+                xmlReader.setContentHandler(new SheetHandler(donorTable, sharedStrings));
+                xmlReader.parse(new InputSource(sheet));
+            }
+            donorTable.endRows();
+            return donorTable;
+        }
+        catch (OpenXML4JException | SAXException | ParserConfigurationException exception) {
+            throw new IOException(exception.getMessage(), exception);
+        }
+    }
+
+    /**
+     * Copies the list of all known donors out of a sheet that has already been read.
+     *
+     * @param allDonorsSheet The list of all known donors
+     * @return the cell values of the list of all known donors
+     */
+    public static DonorTable of(Sheet allDonorsSheet) {
+        DonorTable donorTable = new DonorTable();
+
+        for (Row row : allDonorsSheet) {
+            donorTable.startRow(row.getRowNum());
+            for (Cell cell : row) {
+                CellType cellType = (cell.getCellType() == CellType.FORMULA) ? cell.getCachedFormulaResultType()
+                                                                              : cell.getCellType();
+                switch (cellType) {
+                    case NUMERIC:
+                        donorTable.addCell(cell.getColumnIndex(), cellType, cell.getNumericCellValue(), null);
+                        break;
+                    case STRING:
+                        donorTable.addCell(cell.getColumnIndex(), cellType, 0, cell.getStringCellValue());
+                        break;
+                    default:
+                        donorTable.addCell(cell.getColumnIndex(), cellType, 0, null);
+                }
+            }
+        }
+        donorTable.endRows();
+        return donorTable;
+    }
+
+    /**
+     * @return the number of the last row, or -1 if there are no rows
+     */
+    public int getLastRowNumber() {
+        return this.lastRowNumber;
+    }
+
+    /**
+     * @param rowNumber The row number
+     * @return true if the row exists
+     */
+    public boolean hasRow(int rowNumber) {
+        return rowNumber >= 0 && rowNumber <= this.lastRowNumber && this.rowExists[rowNumber];
+    }
+
+    /**
+     * @param rowNumber The row number
+     * @return the number of cells of the row up to and including its last cell, or 0 if the row has no cells
+     */
+    public int getCellCount(int rowNumber) {
+        if (!hasRow(rowNumber)) {
+            return 0;
+        }
+        return this.rowStarts[rowNumber + 1] - this.rowStarts[rowNumber];
+    }
+
+    /**
+     * @param rowNumber    The row number
+     * @param columnNumber The column number
+     * @return true if the cell exists
+     */
+    public boolean hasCell(int rowNumber, int columnNumber) {
+        return columnNumber >= 0 && columnNumber < getCellCount(rowNumber) &&
+               this.cellTypes[this.rowStarts[rowNumber] + columnNumber] != NO_CELL;
+    }
+
+    /**
+     * @param rowNumber    The row number
+     * @param columnNumber The column number
+     * @return the type of the cell, which is never FORMULA, or BLANK if the cell doesn't exist
+     */
+    public CellType getCellType(int rowNumber, int columnNumber) {
+        return hasCell(rowNumber, columnNumber) ? CELL_TYPES[this.cellTypes[this.rowStarts[rowNumber] + columnNumber]]
+                                                : CellType.BLANK;
+    }
+
+    /**
+     * Gets the text of a cell, the same way Cell.getStringCellValue does.
+     *
+     * @param rowNumber    The row number
+     * @param columnNumber The column number
+     * @return the text of the cell, or an empty string if the cell is blank or doesn't exist
+     * @throws IllegalStateException if the cell doesn't hold text
+     */
+    public String getStringCellValue(int rowNumber, int columnNumber) {
+        CellType cellType = getCellType(rowNumber, columnNumber);
+        switch (cellType) {
+            case STRING:
+                return this.texts[this.rowStarts[rowNumber] + columnNumber];
+            case BLANK:
+                return "";
+            default:
+                throw new IllegalStateException(String.format("Cannot get a STRING value from a %s cell", cellType));
+        }
+    }
+
+    /**
+     * Gets the number of a cell, the same way Cell.getNumericCellValue does.
+     *
+     * @param rowNumber    The row number
+     * @param columnNumber The column number
+     * @return the number of the cell, or 0 if the cell is blank or doesn't exist
+     * @throws IllegalStateException if the cell doesn't hold a number
+     */
+    public double getNumericCellValue(int rowNumber, int columnNumber) {
+        CellType cellType = getCellType(rowNumber, columnNumber);
+        switch (cellType) {
+            case NUMERIC:
+                return this.numbers[this.rowStarts[rowNumber] + columnNumber];
+            case BLANK:
+                return 0;
+            default:
+                throw new IllegalStateException(String.format("Cannot get a NUMERIC value from a %s cell", cellType));
+        }
+    }
+
+    /**
+     * Hashes the cells of a row, to recognise rows that are unchanged in a later version of the donor list, wherever
+     * they are now. The row number is not part of the hash.
+     *
+     * @param rowNumber The row number
+     * @return the hash of the row
+     */
+    public long hashRow(int rowNumber) {
+        long hash = hasRow(rowNumber) ? getCellCount(rowNumber) : -1;
+        for (int i = 0; i < getCellCount(rowNumber); i++) {
+            int index = this.rowStarts[rowNumber] + i;
+            hash = 31 * hash + this.cellTypes[index];
+            if (this.cellTypes[index] == CellType.NUMERIC.ordinal()) {
+                hash = 31 * hash + Double.doubleToLongBits(this.numbers[index]);
+            }
+            else if (this.cellTypes[index] == CellType.STRING.ordinal()) {
+                hash = 31 * hash + this.texts[index].hashCode();
+            }
+        }
+        // Spread the bits, so that similar rows have very different hashes
+        hash = (hash ^ (hash >>> 33)) * 0xFF51AFD7ED558CCDL;
+        return hash ^ (hash >>> 33);
+    }
+
+    /**
+     * Reads a table written by writeTo.
+     *
+     * @param buffer The buffer holding the table, at its position
+     * @return the table
+     */
+    static DonorTable readFrom(ByteBuffer buffer) {
+        DonorTable donorTable = new DonorTable();
+        donorTable.lastRowNumber = buffer.getInt();
+        donorTable.cellCount = buffer.getInt();
+
+        int rowCount = donorTable.lastRowNumber + 1;
+        donorTable.rowExists = new boolean[rowCount];
+        for (int i = 0; i < rowCount; i++) {
+            donorTable.rowExists[i] = buffer.get() != 0;
+        }
+        donorTable.rowStarts = new int[rowCount + 1];
+        buffer.asIntBuffer().get(donorTable.rowStarts);
+        buffer.position(buffer.position() + 4 * (rowCount + 1));
+
+        donorTable.cellTypes = new byte[donorTable.cellCount];
+        donorTable.numbers = new double[donorTable.cellCount];
+        donorTable.texts = new String[donorTable.cellCount];
+        buffer.get(donorTable.cellTypes);
+        for (int i = 0; i < donorTable.cellCount; i++) {
+            if (donorTable.cellTypes[i] == CellType.NUMERIC.ordinal()) {
+                donorTable.numbers[i] = buffer.getDouble();
+            }
+            else if (donorTable.cellTypes[i] == CellType.STRING.ordinal()) {
+                donorTable.texts[i] = DonorSnapshot.readString(buffer);
+            }
+        }
+        return donorTable;
+    }
+
+    /**
+     * Writes the table, with only the values that its cells actually hold.
+     *
+     * @param output The output stream
+     * @throws IOException if writing fails
+     */
+    void writeTo(DataOutputStream output) throws IOException {
+        output.writeInt(this.lastRowNumber);
+        output.writeInt(this.cellCount);
+        for (int i = 0; i <= this.lastRowNumber; i++) {
+            output.writeBoolean(this.rowExists[i]);
+        }
+        for (int i = 0; i <= this.lastRowNumber + 1; i++) {
+            output.writeInt(this.rowStarts[i]);
+        }
+
+        output.write(this.cellTypes, 0, this.cellCount);
+        for (int i = 0; i < this.cellCount; i++) {
+            if (this.cellTypes[i] == CellType.NUMERIC.ordinal()) {
+                output.writeDouble(this.numbers[i]);
+            }
+            else if (this.cellTypes[i] == CellType.STRING.ordinal()) {
+                DonorSnapshot.writeString(output, this.texts[i]);
+            }
+        }
+    }
+
+    /**
+     * Starts a new row. Rows have to be started in ascending order.
+     */
+    private void startRow(int rowNumber) {
+        if (rowNumber <= this.lastRowNumber) {
+            throw new IllegalStateException(String.format("Row %d comes after row %d", rowNumber, this.lastRowNumber));
+        }
+        if (rowNumber >= this.rowExists.length) {
+            int capacity = Math.max(2 * this.rowExists.length, rowNumber + 1);
+            this.rowExists = Arrays.copyOf(this.rowExists, capacity);
+            this.rowStarts = Arrays.copyOf(this.rowStarts, capacity + 1);
+        }
+        // The rows in between don't exist and have no cells
+        Arrays.fill(this.rowStarts, this.lastRowNumber + 1, rowNumber + 1, this.cellCount);
+        this.rowExists[rowNumber] = true;
+        this.lastRowNumber = rowNumber;
+        this.heldBackBlankCount = 0;
+    }
+
+    /**
+     * Adds a cell to the current row. Cells have to be added in ascending order. Blank cells to the right of every
+     * column that has held a value so far are held back until a cell with a value follows them in the same row.
+     */
+    private void addCell(int columnNumber, CellType cellType, double number, String text) {
+        if (cellType == CellType.BLANK && columnNumber > this.lastUsedColumn) {
+            if (this.heldBackBlankCount == this.heldBackBlanks.length) {
+                this.heldBackBlanks = Arrays.copyOf(this.heldBackBlanks, 2 * this.heldBackBlanks.length);
+            }
+            this.heldBackBlanks[this.heldBackBlankCount++] = columnNumber;
+            return;
+        }
+
+        for (int i = 0; i < this.heldBackBlankCount; i++) {
+            storeCell(this.heldBackBlanks[i], CellType.BLANK, 0, null);
+        }
+        this.heldBackBlankCount = 0;
+        if (cellType != CellType.BLANK) {
+            this.lastUsedColumn = Math.max(this.lastUsedColumn, columnNumber);
+        }
+        storeCell(columnNumber, cellType, number, text);
+    }
+
+    /**
+     * Stores a cell of the current row, with all cells between it and the row's previous cell as cells that don't
+     * exist.
+     */
+    private void storeCell(int columnNumber, CellType cellType, double number, String text) {
+        int index = this.rowStarts[this.lastRowNumber] + columnNumber;
+        if (index < this.cellCount) {
+            throw new IllegalStateException(String.format("Cell %d of row %d comes too late",
+                                                          columnNumber,
+                                                          this.lastRowNumber));
+        }
+        if (index >= this.cellTypes.length) {
+            int capacity = Math.max(2 * this.cellTypes.length, index + 1);
+            this.cellTypes = Arrays.copyOf(this.cellTypes, capacity);
+            this.numbers = Arrays.copyOf(this.numbers, capacity);
+            this.texts = Arrays.copyOf(this.texts, capacity);
+        }
+        // The cells in between don't exist
+        Arrays.fill(this.cellTypes, this.cellCount, index, NO_CELL);
+        this.cellTypes[index] = (byte) cellType.ordinal();
+        this.numbers[index] = number;
+        this.texts[index] = text;
+        this.cellCount = index + 1;
+    }
+
+    /**
+     * Ends the last row, after which no more rows can be started.
+     */
+    private void endRows() {
+        this.rowStarts[this.lastRowNumber + 1] = this.cellCount;
+    }
+
+    /**
+     * Reads the rows and cells of a sheet part of a workbook file into a DonorTable. A cell is a c element, whose t
+     * attribute says how its value is stored: as an index into the shared strings (s), as inline rich text (inlineStr),
+     * as the text result of a formula (str), as a boolean (b), as an error (e), or, by default, as a number. The value
+     * is the text of the cell's v element, or of the t elements of its is element for inline text.
+     */
+    private static class SheetHandler extends DefaultHandler {
+        private final DonorTable donorTable;
+        private final ReadOnlySharedStringsTable sharedStrings;
+        private final StringBuilder value = new StringBuilder();
+
+        private int rowNumber = -1;
+        private int columnNumber;
+        private String valueType;
+        private boolean inValue;
+        private boolean hasValue;
+        // Phonetic runs of inline text are not part of the text
+        private boolean inPhoneticRun;
+
+        SheetHandler(DonorTable donorTable, ReadOnlySharedStringsTable sharedStrings) {
+            this.donorTable = donorTable;
+            this.sharedStrings = sharedStrings;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            switch (localName) {
+                case "row":
+                    String rowReference = attributes.getValue("r");
+                    this.rowNumber = (rowReference == null) ? this.rowNumber + 1 : Integer.parseInt(rowReference) - 1;
+                    this.donorTable.startRow(this.rowNumber);
+                    this.columnNumber = -1;
+                    break;
+                case "c":
+                    String cellReference = attributes.getValue("r");
+                    this.columnNumber = (cellReference == null) ? this.columnNumber + 1 : parseColumn(cellReference);
+                    this.valueType = attributes.getValue("t");
+                    this.value.setLength(0);
+                    this.hasValue = false;
+                    break;
+                case "v":
+                    this.inValue = true;
+                    this.hasValue = true;
+                    break;
+                case "t":
+                    this.inValue = !this.inPhoneticRun;
+                    this.hasValue = true;
+                    break;
+                case "rPh":
+                    this.inPhoneticRun = true;
+                    break;
+            }
+        }
+
+        @Override
+        public void characters(char[] chars, int start, int length) {
+            if (this.inValue) {
+                this.value.append(chars, start, length);
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            switch (localName) {
+                case "v":
+                case "t":
+                    this.inValue = false;
+                    break;
+                case "rPh":
+                    this.inPhoneticRun = false;
+                    break;
+                case "c":
+                    addCell();
+                    break;
+            }
+        }
+
+        private boolean isText() {
+            return "s".equals(this.valueType) || "inlineStr".equals(this.valueType) || "str".equals(this.valueType);
+        }
+
+        /**
+         * Parses the column number out of a cell reference like AB12.
+         */
+        private static int parseColumn(String cellReference) {
+            int column = 0;
+            for (int i = 0; i < cellReference.length() && Character.isLetter(cellReference.charAt(i)); i++) {
+                column = 26 * column + (Character.toUpperCase(cellReference.charAt(i)) - 'A' + 1);
+            }
+            return column - 1;
+        }
+
+        private void addCell() {
+            if (!this.hasValue || (this.value.length() == 0 && !isText())) {
+                this.donorTable.addCell(this.columnNumber, CellType.BLANK, 0, null);
+                return;
+            }
+
+            String valueType = (this.valueType == null) ? "n" : this.valueType;
+            switch (valueType) {
+                case "s":
+                    int index = Integer.parseInt(this.value.toString().trim());
+                    String text = this.sharedStrings.getItemAt(index).getString();
+                    this.donorTable.addCell(this.columnNumber, CellType.STRING, 0, text);
+                    break;
+                case "inlineStr":
+                case "str":
+                    this.donorTable.addCell(this.columnNumber, CellType.STRING, 0, this.value.toString());
+                    break;
+                case "b":
+                    this.donorTable.addCell(this.columnNumber, CellType.BOOLEAN, 0, null);
+                    break;
+                case "e":
+                    this.donorTable.addCell(this.columnNumber, CellType.ERROR, 0, null);
+                    break;
+                default:
+                    double number = Double.parseDouble(this.value.toString().trim());
+                    this.donorTable.addCell(this.columnNumber, CellType.NUMERIC, number, null);
+            }
+        }
+    }
+}
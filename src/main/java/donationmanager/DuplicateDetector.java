@@ -0,0 +1,296 @@
+package donationmanager;
+
+import lombok.Setter;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A persistent index of the transactions that have been read before, to leave out the transactions of overlapping
+ * bank statements that were already imported. Every transaction is reduced to a 64-bit fingerprint of its date,
+ * amount, type, normalised name and extra text. The fingerprints are kept in an open addressing hash set, with a
+ * Bloom filter in front of it that answers most lookups of new transactions without touching the set.
+ * <p>
+ * A bank statement can hold the same transaction more than once, e.g. two equal donations of a donor on one day.
+ * These are told apart by counting them: the second one gets a different fingerprint than the first one, so it is
+ * only left out if an earlier bank statement held it twice as well.
+ * <p>
+ * On disk, the index is a compact binary file holding only the fingerprints. The transactions are only remembered for
+ * later runs once the index is saved, which is up to the caller, e.g. after the user confirmed the output as final.
+ */
+public class DuplicateDetector {
+    private static final int MAGIC_NUMBER = 0x444D4458;
+    private static final int FORMAT_VERSION = 1;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int BLOOM_FILTER_HASHES = 4;
+    // The fingerprint 0 marks an empty slot of the hash set, so it is replaced by this one
+    private static final long ZERO_FINGERPRINT = 1;
+
+    /**
+     * The file used for the index if no other file is chosen.
+     */
+    public static final File DEFAULT_FILE = new File(System.getProperty("user.home"),
+                                                     ".donation-manager" + File.separator + "transactions.index");
+
+    private final File file;
+    // At most half full, so that lookups only need a few probes
+    private long[] fingerprints = new long[INITIAL_CAPACITY];
+    // Four bits per slot of the hash set, which gives a false positive rate of about 2% when the set is half full
+    private long[] bloomFilter = new long[INITIAL_CAPACITY / 16];
+    private int size;
+
+    /**
+     * If set, the transactions that are already in the index are kept instead of left out, e.g. to read a bank
+     * statement again that was imported before. The transactions are still added to the index.
+     */
+    @Setter
+    private boolean keepImported;
+
+    /**
+     * @param file The file the index is saved to
+     */
+    public DuplicateDetector(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Loads the index from a file. An index that can't be read or is not valid is reported and treated like a missing
+     * one, so that it doesn't keep the bank statements from being read. It is replaced the next time the index is
+     * saved.
+     *
+     * @param file The file of the index
+     * @return the loaded index, or an empty index if the file doesn't exist yet or can't be read
+     */
+    public static DuplicateDetector load(File file) {
+        if (!file.isFile()) {
+            return new DuplicateDetector(file);
+        }
+
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (input.readInt() != MAGIC_NUMBER || input.readInt() != FORMAT_VERSION) {
+                throw new IOException(String.format("The transaction index %s is not valid", file));
+            }
+
+            DuplicateDetector duplicateDetector = new DuplicateDetector(file);
+            int size = input.readInt();
+            for (int i = 0; i < size; i++) {
+                duplicateDetector.add(input.readLong());
+            }
+            return duplicateDetector;
+        }
+        catch (IOException exception) {
+            System.err.printf("Could not load the transaction index: %s%n", exception.getMessage());
+            return new DuplicateDetector(file);
+        }
+    }
+
+    /**
+     * Saves the index to its file. The index is written to a temporary file first, so a crash never leaves a
+     * half-written index behind.
+     *
+     * @throws IOException if the index can't be written
+     */
+    public void save() throws IOException {
+        File directory = this.file.getAbsoluteFile().getParentFile();
+        Files.createDirectories(directory.toPath());
+        File temporaryFile = File.createTempFile(this.file.getName(), ".tmp", directory);
+
+        try {
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(
+                    temporaryFile.toPath())))) {
+                output.writeInt(MAGIC_NUMBER);
+                output.writeInt(FORMAT_VERSION);
+                output.writeInt(this.size);
+                for (long fingerprint : this.fingerprints) {
+                    if (fingerprint != 0) {
+                        output.writeLong(fingerprint);
+                    }
+                }
+            }
+            Files.move(temporaryFile.toPath(), this.file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        finally {
+            Files.deleteIfExists(temporaryFile.toPath());
+        }
+    }
+
+    /**
+     * Leaves out the transactions that are already in the index, and adds the others to it. Equal transactions are
+     * counted within the given transactions, so they must come from a single bank statement: the transactions of
+     * several bank statements are to be passed one bank statement after the other.
+     *
+     * @param transactions The transactions read from a single bank statement
+     * @return the transactions that were not in the index, in their original order, or all transactions if
+     * keepImported is set
+     */
+    public TransactionBatch removeDuplicates(TransactionBatch transactions) {
+        TransactionBatch newTransactions = new TransactionBatch();
+        // How often every transaction has been seen so far in this bank statement
+        Map<Long, Integer> occurrences = new HashMap<>();
+
+        for (int i = 0; i < transactions.size(); i++) {
+            long fingerprint = fingerprint(transactions, i);
+            int occurrence = occurrences.merge(fingerprint, 1, Integer::sum);
+            if (add(mix(fingerprint + occurrence)) || this.keepImported) {
+                newTransactions.add(transactions, i);
+            }
+        }
+        return newTransactions;
+    }
+
+    /**
+     * @return the number of fingerprints in the index
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Checks if a stored fingerprint is in the index. The fingerprints stored for transactions also hold how often the
+     * transaction occurred before in its bank statement, see removeDuplicates.
+     *
+     * @param fingerprint The stored fingerprint
+     * @return true if the fingerprint is in the index
+     */
+    boolean contains(long fingerprint) {
+        fingerprint = (fingerprint == 0) ? ZERO_FINGERPRINT : fingerprint;
+        if (!mightContain(fingerprint)) {
+            return false;
+        }
+
+        int mask = this.fingerprints.length - 1;
+        for (int slot = (int) fingerprint & mask; this.fingerprints[slot] != 0; slot = (slot + 1) & mask) {
+            if (this.fingerprints[slot] == fingerprint) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Adds a stored fingerprint to the index.
+     *
+     * @param fingerprint The stored fingerprint
+     * @return true if the fingerprint was not in the index before
+     */
+    boolean add(long fingerprint) {
+        fingerprint = (fingerprint == 0) ? ZERO_FINGERPRINT : fingerprint;
+        if (contains(fingerprint)) {
+            return false;
+        }
+
+        if (2 * (this.size + 1) > this.fingerprints.length) {
+            resize(2 * this.fingerprints.length);
+        }
+        insert(fingerprint);
+        return true;
+    }
+
+    /**
+     * Makes the fingerprint of a transaction. Names are compared regardless of case and of how much whitespace there
+     * is between their words, since the same donor is not always written the same way.
+     *
+     * @param transactions The batch holding the transaction
+     * @param index        The index of the transaction
+     * @return the fingerprint
+     */
+    private static long fingerprint(TransactionBatch transactions, int index) {
+        LocalDate date = transactions.getDate(index);
+        long hash = mix((date == null) ? Long.MIN_VALUE : date.toEpochDay());
+        hash = mix(hash ^ transactions.getCents(index));
+        hash = mix(hash ^ transactions.getTransactionType(index).ordinal());
+        hash = hashNormalisedName(hash, transactions.getName(index));
+
+        List<String> miscText = transactions.getMiscText(index);
+        for (String line : miscText) {
+            hash = hashChars(hash, line);
+        }
+        return mix(hash ^ miscText.size());
+    }
+
+    private void insert(long fingerprint) {
+        int mask = this.fingerprints.length - 1;
+        int slot = (int) fingerprint & mask;
+        while (this.fingerprints[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        this.fingerprints[slot] = fingerprint;
+        this.size++;
+
+        long bloomFilterMask = (this.bloomFilter.length * 64L) - 1;
+        long step = (fingerprint >>> 32) | 1;
+        for (int i = 0; i < BLOOM_FILTER_HASHES; i++) {
+            long bit = (fingerprint + i * step) & bloomFilterMask;
+            this.bloomFilter[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    private boolean mightContain(long fingerprint) {
+        long bloomFilterMask = (this.bloomFilter.length * 64L) - 1;
+        long step = (fingerprint >>> 32) | 1;
+        for (int i = 0; i < BLOOM_FILTER_HASHES; i++) {
+            long bit = (fingerprint + i * step) & bloomFilterMask;
+            if ((this.bloomFilter[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void resize(int capacity) {
+        long[] fingerprints = this.fingerprints;
+        this.fingerprints = new long[capacity];
+        this.bloomFilter = new long[capacity / 16];
+        this.size = 0;
+        for (long fingerprint : fingerprints) {
+            if (fingerprint != 0) {
+                insert(fingerprint);
+            }
+        }
+    }
+
+    private static long hashNormalisedName(long hash, String name) {
+        boolean whitespace = true;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (Character.isWhitespace(c)) {
+                whitespace = true;
+                continue;
+            }
+            if (whitespace) {
+                // Runs of whitespace between words count as a single space, around the name they don't count at all
+                hash = (hash ^ ' ') * 0x100000001B3L;
+                whitespace = false;
+            }
+            hash = (hash ^ Character.toLowerCase(c)) * 0x100000001B3L;
+        }
+        return mix(hash);
+    }
+
+    private static long hashChars(long hash, String text) {
+        for (int i = 0; i < text.length(); i++) {
+            hash = (hash ^ text.charAt(i)) * 0x100000001B3L;
+        }
+        return mix(hash ^ text.length());
+    }
+
+    /**
+     * Spreads the bits of a hash, so that every bit of the result depends on every bit of the input.
+     */
+    private static long mix(long hash) {
+        hash = (hash ^ (hash >>> 30)) * 0xBF58476D1CE4E5B9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94D049BB133111EBL;
+        return hash ^ (hash >>> 31);
+    }
+}
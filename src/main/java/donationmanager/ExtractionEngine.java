@@ -0,0 +1,5 @@
+package donationmanager;
+
+public enum ExtractionEngine {
+    TABULA, TEXT_LAYER
+}
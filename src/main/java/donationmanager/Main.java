@@ -1,31 +1,246 @@
 package donationmanager;
 
-import technology.tabula.RectangularTextContainer;
-
+import javax.swing.*;
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 public class Main {
+    private static final long TABLE_CACHE_MAX_BYTES = 256L * 1024 * 1024;
+    private static final String ENGINE_PROPERTY = "donationmanager.engine";
+    private static final String KEEP_IMPORTED_PROPERTY = "donationmanager.keepImported";
 
-    public static void main(String[] args) throws IOException {
+    /**
+     * Runs the donation manager. Without arguments, the bank statement is chosen in a file chooser dialogue. Otherwise
+     * the arguments are the bank statement PDFs, or directories containing them, to be processed as one batch. The
+     * extraction engine can be chosen with the system property donationmanager.engine, either TABULA (the default) or
+     * TEXT_LAYER.
+     * <p>
+     * All files are chosen up front, so that the list of all known donors can be loaded in the background while the
+     * transactions are read out of the bank statements. The time each of them takes is printed out. If the list of all
+     * known donors can't be loaded, this is reported right away and reading the transactions is stopped.
+     * <p>
+     * Transactions that were already imported from an earlier, overlapping bank statement are left out, unless the
+     * system property donationmanager.keepImported is true, e.g. to read a bank statement again after the list of all
+     * known donors has been fixed. The transactions are only remembered as imported once the user has confirmed the
+     * output file as final.
+     *
+     * @param args Optional paths to bank statements or directories of bank statements
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
         FileHandler fileHandler = new FileHandler();
-        File bankStatement = fileHandler.chooseFileToOpen("Choose the bank statement PDF.", FileFilter.PDF);
+
+        File bankStatement = args.length > 0 ? null
+                                             : fileHandler.chooseFileToOpen("Choose the bank statement PDF.",
+                                                                            FileFilter.PDF);
+        File allDonorsExcel = fileHandler.chooseFileToOpen("Choose the file with all known donors", FileFilter.EXCEL);
+        File outputExcel = fileHandler.chooseFileToSave("Choose Where to save the output", FileFilter.EXCEL);
+        DonationListMaker.checkOutputFile(outputExcel);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            DuplicateDetector duplicateDetector = DuplicateDetector.load(DuplicateDetector.DEFAULT_FILE);
+            duplicateDetector.setKeepImported(Boolean.getBoolean(KEEP_IMPORTED_PROPERTY));
+
+            long start = System.nanoTime();
+            CompletableFuture<DonorIndex> donorIndex = CompletableFuture.supplyAsync(() -> loadDonors(allDonorsExcel),
+                                                                                     executor);
+            Future<TransactionBatch> transactions = executor.submit(
+                    () -> args.length > 0 ? readBatch(args, duplicateDetector)
+                                          : readBankStatement(bankStatement, duplicateDetector));
+            donorIndex.whenComplete((index, exception) -> {
+                if (exception != null) {
+                    transactions.cancel(true);
+                }
+            });
+            TransactionBatch readTransactions = getTransactions(transactions, donorIndex);
+            printTime("Read the transactions", start);
+
+            start = System.nanoTime();
+            DialogueBox dialogueBox = new DialogueBox();
+            DonationListMaker donationListMaker = new DonationListMaker(getDonorIndex(donorIndex),
+                                                                        readTransactions,
+                                                                        outputExcel,
+                                                                        dialogueBox);
+            printTime("Waited for the donors", start);
+            donationListMaker.setParallelism(Runtime.getRuntime().availableProcessors());
+            donationListMaker.setAliasStore(AliasStore.load(AliasStore.DEFAULT_FILE));
+
+            donationListMaker.makeDonationList();
+            if (dialogueBox.showFinalDonationListDialogue(outputExcel) == JOptionPane.YES_OPTION) {
+                duplicateDetector.save();
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Loads the list of all known donors, from its snapshot if it hasn't changed since the last run.
+     *
+     * @param allDonorsExcel The Excel file with all known donors
+     * @return the index of the donors
+     * @throws IllegalArgumentException if the file is not the Excel file with all known donors
+     */
+    private static DonorIndex loadDonors(File allDonorsExcel) {
+        long start = System.nanoTime();
+        DonorIndex donorIndex = DonationListMaker.loadDonors(allDonorsExcel,
+                                                             new DonorSnapshot(DonorSnapshot.DEFAULT_DIRECTORY));
+        printTime("Loaded the donors", start);
+        return donorIndex;
+    }
+
+    /**
+     * Waits for the list of all known donors to be loaded.
+     *
+     * @param donorIndex The donor index being loaded
+     * @return the index of the donors
+     * @throws InterruptedException if interrupted while waiting
+     */
+    private static DonorIndex getDonorIndex(Future<DonorIndex> donorIndex) throws InterruptedException {
+        try {
+            return donorIndex.get();
+        }
+        catch (ExecutionException exception) {
+            if (exception.getCause() instanceof Error) {
+                throw (Error) exception.getCause();
+            }
+            throw (RuntimeException) exception.getCause();
+        }
+    }
+
+    /**
+     * Waits for the transactions to be read.
+     *
+     * @param transactions The transactions being read, which are cancelled if the donors can't be loaded
+     * @param donorIndex   The donor index being loaded
+     * @return the transactions
+     * @throws IOException          if loading the bank statement fails
+     * @throws InterruptedException if interrupted while waiting
+     */
+    private static TransactionBatch getTransactions(Future<TransactionBatch> transactions,
+                                                    Future<DonorIndex> donorIndex)
+            throws IOException, InterruptedException {
+        try {
+            return transactions.get();
+        }
+        catch (CancellationException exception) {
+            // Reading the transactions is only cancelled if loading the donors failed
+            getDonorIndex(donorIndex);
+            throw exception;
+        }
+        catch (ExecutionException exception) {
+            if (exception.getCause() instanceof IOException) {
+                throw (IOException) exception.getCause();
+            }
+            if (exception.getCause() instanceof InterruptedException) {
+                throw (InterruptedException) exception.getCause();
+            }
+            if (exception.getCause() instanceof Error) {
+                throw (Error) exception.getCause();
+            }
+            throw (RuntimeException) exception.getCause();
+        }
+    }
+
+    /**
+     * Reads the transactions out of a bank statement, leaving out the ones that were already imported.
+     *
+     * @param bankStatement     The bank statement PDF
+     * @param duplicateDetector The index of the transactions that were already imported
+     * @return the new transactions in the bank statement
+     * @throws IOException if loading the bank statement fails
+     */
+    private static TransactionBatch readBankStatement(File bankStatement, DuplicateDetector duplicateDetector)
+            throws IOException {
         BankStatementReader bankStatementReader = new BankStatementReader(bankStatement);
+        bankStatementReader.setParallelism(Runtime.getRuntime().availableProcessors());
+        bankStatementReader.setTableCache(new TableCache(TableCache.DEFAULT_DIRECTORY, TABLE_CACHE_MAX_BYTES));
+        bankStatementReader.setEngine(getExtractionEngine());
 
-        List<List<RectangularTextContainer>> extractedTable = bankStatementReader.extractTable();
+        // The transactions are read while the pages are still being extracted
+        long start = System.nanoTime();
+        TransactionBatch readTransactions = bankStatementReader.readTransactions();
+        printTime("Extracted and parsed the bank statement", start);
 
-        TransactionManager transactionManager = new TransactionManager(extractedTable);
+        TransactionBatch transactions = duplicateDetector.removeDuplicates(readTransactions);
+        printLeftOut(readTransactions.size() - transactions.size());
+        return transactions;
+    }
 
-        List<Transaction> transactions = transactionManager.makeTransactionList();
+    /**
+     * Reads the transactions out of a batch of bank statements, leaving out the ones that were already imported. Bank
+     * statements that can't be read are reported and left out.
+     *
+     * @param paths             Paths to bank statements or directories of bank statements
+     * @param duplicateDetector The index of the transactions that were already imported
+     * @return the new transactions of all readable bank statements
+     * @throws InterruptedException if interrupted while waiting for the bank statements to be read
+     */
+    private static TransactionBatch readBatch(String[] paths, DuplicateDetector duplicateDetector)
+            throws InterruptedException {
+        List<File> files = new ArrayList<>();
+        for (String path : paths) {
+            files.add(new File(path));
+        }
 
-        File allDonorsExcel = fileHandler.chooseFileToOpen("Choose the file with all known donors", FileFilter.EXCEL);
-        File outputExcel = fileHandler.chooseFileToSave("Choose Where to save the output", FileFilter.EXCEL);
-        DonationListMaker donationListMaker = new DonationListMaker(allDonorsExcel,
-                                                                    transactions,
-                                                                    outputExcel,
-                                                                    new DialogueBox());
+        BatchProcessor batchProcessor = new BatchProcessor(BatchProcessor.findBankStatements(files),
+                                                           Runtime.getRuntime().availableProcessors());
+        batchProcessor.setTableCache(new TableCache(TableCache.DEFAULT_DIRECTORY, TABLE_CACHE_MAX_BYTES));
+        batchProcessor.setEngine(getExtractionEngine());
+        batchProcessor.setDuplicateDetector(duplicateDetector);
+        TransactionBatch transactions = batchProcessor.readTransactions();
+
+        System.out.printf("Read %d transactions, %d bank statement(s) skipped%n",
+                          transactions.size(),
+                          batchProcessor.getFailures().size());
+        printLeftOut(batchProcessor.getDuplicates());
+        return transactions;
+    }
+
+    /**
+     * Reads the extraction engine chosen for this run from the system properties.
+     *
+     * @return the chosen extraction engine, or Tabula if none is chosen
+     * @throws IllegalArgumentException if the chosen extraction engine doesn't exist
+     */
+    private static ExtractionEngine getExtractionEngine() {
+        String engine = System.getProperty(ENGINE_PROPERTY, ExtractionEngine.TABULA.name());
+        try {
+            return ExtractionEngine.valueOf(engine);
+        }
+        catch (IllegalArgumentException exception) {
+            throw new IllegalArgumentException(String.format("The extraction engine %s does not exist", engine));
+        }
+    }
+
+    /**
+     * Prints out how many transactions were left out because they were already imported, if any.
+     *
+     * @param duplicates The number of transactions left out
+     */
+    private static void printLeftOut(int duplicates) {
+        if (duplicates > 0) {
+            System.out.printf("Left out %d transaction(s) that were already imported%n", duplicates);
+        }
+    }
 
-        donationListMaker.makeDonationList();
+    /**
+     * Prints out how long a stage of the run took.
+     *
+     * @param stage The stage that has ended
+     * @param start The System.nanoTime() at the start of the stage
+     */
+    private static void printTime(String stage, long start) {
+        System.out.printf("%s in %d ms%n", stage, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
     }
 }
@@ -0,0 +1,63 @@
+package donationmanager;
+
+import lombok.Value;
+
+/**
+ * An amount of money in whole cents. Amounts are added and compared exactly, unlike amounts held as doubles.
+ */
+@Value(staticConstructor = "ofCents")
+public class Money implements Comparable<Money> {
+    public static final Money ZERO = ofCents(0);
+
+    long cents;
+
+    /**
+     * Reads an amount as it is written on a bank statement, like 1'111.11.
+     *
+     * @param amount The amount
+     * @return the amount of money
+     * @throws NumberFormatException if the text is not an amount
+     */
+    public static Money parse(CharSequence amount) {
+        return ofCents(AmountScanner.parseCents(amount));
+    }
+
+    /**
+     * Converts an amount held as a double, like the value of a numeric cell, rounding it to whole cents.
+     *
+     * @param amount The amount
+     * @return the amount of money
+     */
+    public static Money of(double amount) {
+        return ofCents(Math.round(amount * 100));
+    }
+
+    /**
+     * @param other The amount to be added
+     * @return the sum of both amounts
+     */
+    public Money plus(Money other) {
+        return ofCents(Math.addExact(this.cents, other.cents));
+    }
+
+    /**
+     * @return the amount as a double, e.g. to be written into a numeric cell
+     */
+    public double toDouble() {
+        return this.cents / 100.0;
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(this.cents, other.cents);
+    }
+
+    /**
+     * @return the amount with two decimal places and without digit group separators, like 1111.11
+     */
+    @Override
+    public String toString() {
+        long absoluteCents = Math.abs(this.cents);
+        return String.format("%s%d.%02d", this.cents < 0 ? "-" : "", absoluteCents / 100, absoluteCents % 100);
+    }
+}
@@ -0,0 +1,123 @@
+package donationmanager;
+
+import technology.tabula.RectangularTextContainer;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The table of transactions of a statement, reduced to the text of its cells. The texts are read out of the extracted
+ * cells once, when the rows are added, and kept in one array per column. Equal texts are only kept once, which pays
+ * off for the many repeated dates, purposes and blank cells of a statement.
+ * <p>
+ * Rows can be shorter than the table is wide. Their missing cells read as blank, just like cells without text.
+ */
+public class StatementTable {
+    public static final int DATE = 0;
+    public static final int TEXT = 1;
+    public static final int VALUTA = 2;
+    public static final int DEBIT = 3;
+    public static final int CREDIT = 4;
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final Map<String, String> texts = new HashMap<>();
+    private String[][] columns = new String[0][];
+    private int capacity = INITIAL_CAPACITY;
+    private int size;
+
+    /**
+     * Makes a table out of extracted rows.
+     *
+     * @param rows The rows, as extracted by a BankStatementReader
+     * @return the table
+     */
+    public static StatementTable of(List<? extends List<? extends RectangularTextContainer>> rows) {
+        StatementTable table = new StatementTable();
+        table.capacity = Math.max(INITIAL_CAPACITY, rows.size());
+        for (List<? extends RectangularTextContainer> row : rows) {
+            table.addRow(row);
+        }
+        return table;
+    }
+
+    /**
+     * Adds a row at the end of the table. The extracted cells are not kept, only their text.
+     *
+     * @param row The cells of the row
+     */
+    public void addRow(List<? extends RectangularTextContainer> row) {
+        if (row.size() > this.columns.length) {
+            int columnCount = this.columns.length;
+            this.columns = Arrays.copyOf(this.columns, row.size());
+            for (int i = columnCount; i < row.size(); i++) {
+                this.columns[i] = new String[this.capacity];
+            }
+        }
+        if (this.size == this.capacity) {
+            this.capacity *= 2;
+            for (int i = 0; i < this.columns.length; i++) {
+                this.columns[i] = Arrays.copyOf(this.columns[i], this.capacity);
+            }
+        }
+
+        for (int i = 0; i < row.size(); i++) {
+            String text = row.get(i).getText();
+            this.columns[i][this.size] = this.texts.computeIfAbsent(text, key -> key);
+        }
+        this.size++;
+    }
+
+    /**
+     * Removes the rows before a row, which then becomes the first row of the table. Used to drop the rows that have
+     * been read while more rows are still being added. The texts kept for rows added later start over, so that they
+     * don't pile up either.
+     *
+     * @param row The index of the row that becomes the first row
+     * @throws IndexOutOfBoundsException if there is no such row
+     */
+    public void removeRowsBefore(int row) {
+        Objects.checkFromToIndex(0, row, this.size);
+        for (String[] column : this.columns) {
+            System.arraycopy(column, row, column, 0, this.size - row);
+            Arrays.fill(column, this.size - row, this.size, null);
+        }
+        this.size -= row;
+        this.texts.clear();
+    }
+
+    /**
+     * @return the number of rows
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * @return the number of columns, which is the number of cells of the longest row
+     */
+    public int getColumnCount() {
+        return this.columns.length;
+    }
+
+    /**
+     * Gets the text of a cell.
+     *
+     * @param row    The index of the row
+     * @param column The index of the column, e.g. DATE or TEXT
+     * @return the text of the cell, or an empty String if the row has no cell in this column
+     * @throws IndexOutOfBoundsException if there is no such row
+     */
+    public String getCell(int row, int column) {
+        Objects.checkIndex(row, this.size);
+        if (column >= this.columns.length) {
+            return "";
+        }
+
+        String text = this.columns[column][row];
+        return (text == null) ? "" : text;
+    }
+}
@@ -0,0 +1,155 @@
+package donationmanager;
+
+import technology.tabula.RectangularTextContainer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * An on-disk cache of extracted bank statement tables. Every table is stored in its own file, named after a hash of
+ * the bank statement and the extraction parameters, in a compact binary format holding only the text of the cells.
+ * When the cache grows beyond its size limit, the least recently used tables are evicted.
+ */
+public class TableCache {
+    private static final int MAGIC_NUMBER = 0x444D5443;
+    private static final int FORMAT_VERSION = 1;
+    private static final String FILE_EXTENSION = ".table";
+
+    /**
+     * The directory used for cached tables if no other directory is chosen.
+     */
+    public static final File DEFAULT_DIRECTORY = new File(System.getProperty("user.home"),
+                                                          ".donation-manager" + File.separator + "tables");
+
+    private final File directory;
+    private final long maxBytes;
+
+    /**
+     * @param directory The directory the cached tables are stored in. Created if it doesn't exist yet.
+     * @param maxBytes  The maximum total size of all cached tables
+     */
+    public TableCache(File directory, long maxBytes) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Makes the cache key for a bank statement, which is a hash of the bytes of the PDF and the parameters used to
+     * extract its table.
+     *
+     * @param bankStatement        The bank statement PDF
+     * @param extractionParameters Everything besides the PDF that determines the extracted table
+     * @return the cache key, as a hexadecimal string
+     * @throws IOException if the bank statement can't be read
+     */
+    public static String makeKey(File bankStatement, String extractionParameters) throws IOException {
+        return ContentHash.of(bankStatement, extractionParameters);
+    }
+
+    /**
+     * Loads a table from the cache and marks it as recently used.
+     *
+     * @param key The cache key of the table
+     * @return the cached table, or an empty Optional if the table is not in the cache or can't be read
+     */
+    public synchronized Optional<List<List<RectangularTextContainer>>> load(String key) {
+        File file = getFile(key);
+        if (!file.isFile()) {
+            return Optional.empty();
+        }
+
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (input.readInt() != MAGIC_NUMBER || input.readInt() != FORMAT_VERSION || !input.readUTF().equals(key)) {
+                return Optional.empty();
+            }
+
+            int rowCount = input.readInt();
+            List<List<RectangularTextContainer>> table = new ArrayList<>(rowCount);
+            for (int i = 0; i < rowCount; i++) {
+                int cellCount = input.readUnsignedShort();
+                List<RectangularTextContainer> row = new ArrayList<>(cellCount);
+                for (int j = 0; j < cellCount; j++) {
+                    row.add(new TextCell(input.readUTF()));
+                }
+                table.add(row);
+            }
+
+            file.setLastModified(System.currentTimeMillis());
+            return Optional.of(table);
+        }
+        catch (IOException exception) {
+            // A corrupt or truncated entry is treated like a missing one and will be overwritten
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Stores a table in the cache, then evicts the least recently used tables until the cache fits its size limit
+     * again. The table is written to a temporary file first, so a crash never leaves a half-written entry behind.
+     *
+     * @param key   The cache key of the table
+     * @param table The table to be stored
+     * @throws IOException if the table can't be written
+     */
+    public synchronized void store(String key, List<List<RectangularTextContainer>> table) throws IOException {
+        Files.createDirectories(this.directory.toPath());
+        File temporaryFile = File.createTempFile(key, ".tmp", this.directory);
+
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(
+                temporaryFile.toPath())))) {
+            output.writeInt(MAGIC_NUMBER);
+            output.writeInt(FORMAT_VERSION);
+            output.writeUTF(key);
+
+            output.writeInt(table.size());
+            for (List<RectangularTextContainer> row : table) {
+                output.writeShort(row.size());
+                for (RectangularTextContainer cell : row) {
+                    output.writeUTF(cell.getText());
+                }
+            }
+        }
+        Files.move(temporaryFile.toPath(), getFile(key).toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+        evictLeastRecentlyUsed();
+    }
+
+    /**
+     * Deletes the least recently used tables until the total size of the cache is within its limit.
+     */
+    private void evictLeastRecentlyUsed() {
+        File[] files = this.directory.listFiles((directory, name) -> name.endsWith(FILE_EXTENSION));
+        if (files == null) {
+            return;
+        }
+
+        long totalBytes = 0;
+        for (File file : files) {
+            totalBytes += file.length();
+        }
+
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+        for (int i = 0; i < files.length && totalBytes > this.maxBytes; i++) {
+            long fileBytes = files[i].length();
+            if (files[i].delete()) {
+                totalBytes -= fileBytes;
+            }
+        }
+    }
+
+    private File getFile(String key) {
+        return new File(this.directory, key + FILE_EXTENSION);
+    }
+}
@@ -0,0 +1,27 @@
+package donationmanager;
+
+import technology.tabula.RectangularTextContainer;
+import technology.tabula.TextElement;
+
+/**
+ * A table cell that only holds the text of the cell, not the text elements or the geometry. Used wherever a table is
+ * built without Tabula, so that it has the same row/column model as a table extracted by Tabula.
+ */
+public class TextCell extends RectangularTextContainer<TextElement> {
+    private final String text;
+
+    public TextCell(String text) {
+        super(0, 0, 0, 0);
+        this.text = text;
+    }
+
+    @Override
+    public String getText() {
+        return this.text;
+    }
+
+    @Override
+    public String getText(boolean useLineReturns) {
+        return this.text;
+    }
+}
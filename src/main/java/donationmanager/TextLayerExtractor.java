@@ -0,0 +1,309 @@
+package donationmanager;
+
+import lombok.Setter;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.apache.pdfbox.text.TextPosition;
+import technology.tabula.RectangularTextContainer;
+import technology.tabula.Rectangle;
+import technology.tabula.TextElement;
+import technology.tabula.Utils;
+
+import java.io.IOException;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Extracts tables straight from the text layer of a PDF, for layouts where the area and the column positions of the
+ * table are known in advance. The glyphs in the area are collected while PDFBox parses the content stream, grouped into
+ * lines by their vertical position and bucketed into the columns by their horizontal position. Words are separated the
+ * same way Tabula's stream extraction separates them, so the rows and cells are the same as Tabula's, without building
+ * a Tabula Page with its rulings and spatial index first.
+ */
+public class TextLayerExtractor extends PDFTextStripper {
+    private static final String NBSP = "\u00a0";
+    // Same thresholds as Tabula's TextStripper for dropping blank glyphs that are not part of the text
+    private static final float MAX_BLANK_HEIGHT_FACTOR = 6.0f;
+    private static final float MAX_BLANK_FONT_SIZE = 40.0f;
+    private static final float MIN_BLANK_FONT_SIZE = 2.0f;
+    private static final float MIN_LINE_OVERLAP_RATIO = 0.1f;
+
+    private final PDDocument document;
+
+    /**
+     * If set, all text of the page is kept when a table is extracted, see getPageText.
+     */
+    @Setter
+    private boolean keepPageText;
+
+    private Rectangle area;
+    private List<TextElement> glyphs;
+    private List<TextElement> pageText;
+    private float totalHeight;
+    private int glyphCount;
+
+    /**
+     * @param document The PDF the tables are extracted from
+     * @throws IOException if PDFBox can't set up the text stripper
+     */
+    public TextLayerExtractor(PDDocument document) throws IOException {
+        this.document = document;
+    }
+
+    /**
+     * Extracts the table in an area of a page. Every line of text in the area becomes a row, and every row gets one
+     * cell per column, up to the rightmost column that holds text anywhere in the area.
+     *
+     * @param pageNumber      The number of the page, starting at 1
+     * @param top             The top of the area, in PDF points from the top of the page
+     * @param left            The left of the area, in PDF points from the left of the page
+     * @param bottom          The bottom of the area, in PDF points from the top of the page
+     * @param right           The right of the area, in PDF points from the left of the page
+     * @param columnPositions The right edges of all columns but the last one, in ascending order
+     * @return the rows of the table, or an empty list if there is no text in the area
+     * @throws IOException if the page can't be parsed
+     */
+    public List<List<RectangularTextContainer>> extract(int pageNumber,
+                                                        float top,
+                                                        float left,
+                                                        float bottom,
+                                                        float right,
+                                                        List<Float> columnPositions) throws IOException {
+        this.area = new Rectangle(top, left, right - left, bottom - top);
+        this.glyphs = new ArrayList<>();
+        this.pageText = this.keepPageText ? new ArrayList<>() : null;
+        this.totalHeight = 0;
+        this.glyphCount = 0;
+
+        setStartPage(pageNumber);
+        setEndPage(pageNumber);
+        getText(this.document);
+        if (this.pageText != null) {
+            Utils.sort(this.pageText, Rectangle.ILL_DEFINED_ORDER);
+        }
+
+        List<List<TextElement>> lines = groupByLines(this.glyphs);
+        this.glyphs = null;
+        return makeRows(lines, columnPositions);
+    }
+
+    /**
+     * Gets all text of the page the last table was extracted from, if keepPageText was set for it. The glyphs are in
+     * the same order as the text elements of a Tabula Page: from top to bottom, and from left to right within a line.
+     *
+     * @return the glyphs of the page, or null if the text of the page was not kept
+     */
+    public List<TextElement> getPageText() {
+        return this.pageText;
+    }
+
+    /**
+     * Collects a glyph if it lies completely within the area, and keeps it as text of the page if keepPageText is set.
+     * Called by PDFBox for every glyph of the page, in content stream order. The glyph is not passed on to
+     * PDFTextStripper, since none of its text output is needed.
+     *
+     * @param textPosition The glyph
+     */
+    @Override
+    protected void processTextPosition(TextPosition textPosition) {
+        String text = textPosition.getUnicode();
+        if (text == null || !isPrintable(text)) {
+            return;
+        }
+        if (text.equals(NBSP)) {
+            text = " ";
+        }
+
+        TextElement glyph = new TextElement(Utils.round(textPosition.getYDirAdj() - textPosition.getHeightDir(), 2),
+                                            Utils.round(textPosition.getXDirAdj(), 2),
+                                            Utils.round(textPosition.getWidthDirAdj(), 2),
+                                            Utils.round(textPosition.getHeightDir(), 2),
+                                            textPosition.getFont(),
+                                            textPosition.getFontSizeInPt(),
+                                            text,
+                                            textPosition.getWidthOfSpace(),
+                                            textPosition.getDir());
+
+        this.glyphCount++;
+        this.totalHeight += glyph.getHeight();
+        float averageHeight = this.totalHeight / this.glyphCount;
+
+        if (text.trim().isEmpty() && (averageHeight > 0 && glyph.getHeight() >= averageHeight * MAX_BLANK_HEIGHT_FACTOR
+                || textPosition.getFontSizeInPt() > MAX_BLANK_FONT_SIZE
+                || textPosition.getFontSizeInPt() < MIN_BLANK_FONT_SIZE)) {
+            return;
+        }
+        if (this.pageText != null) {
+            this.pageText.add(glyph);
+        }
+        if (this.area.contains(glyph)) {
+            this.glyphs.add(glyph);
+        }
+    }
+
+    /**
+     * Groups the glyphs into lines. A glyph starts a new line when it overlaps less than 10% vertically with the line
+     * above, and the glyphs of every line are ordered from left to right.
+     *
+     * @param glyphs The glyphs in the area, in any order
+     * @return the lines, from top to bottom
+     */
+    private List<List<TextElement>> groupByLines(List<TextElement> glyphs) {
+        glyphs.sort(Comparator.comparingDouble(TextElement::getBottom));
+
+        List<List<TextElement>> lines = new ArrayList<>();
+        List<TextElement> line = null;
+        Rectangle lineBounds = null;
+        for (TextElement glyph : glyphs) {
+            if (line == null || lineBounds.verticalOverlapRatio(glyph) < MIN_LINE_OVERLAP_RATIO) {
+                line = new ArrayList<>();
+                lines.add(line);
+                lineBounds = new Rectangle(glyph.getTop(), glyph.getLeft(), glyph.width, glyph.height);
+            }
+            else {
+                lineBounds.merge(glyph);
+            }
+            line.add(glyph);
+        }
+
+        for (List<TextElement> glyphsInLine : lines) {
+            glyphsInLine.sort(Comparator.comparingDouble(TextElement::getLeft));
+        }
+        return lines;
+    }
+
+    /**
+     * Buckets the glyphs of every line into the columns and joins them into the text of the cells. A space is put
+     * between two glyphs of a cell when the gap between them is wider than Tabula would allow within a word.
+     *
+     * @param lines           The lines of glyphs, from top to bottom
+     * @param columnPositions The right edges of all columns but the last one, in ascending order
+     * @return the rows of the table
+     */
+    private List<List<RectangularTextContainer>> makeRows(List<List<TextElement>> lines, List<Float> columnPositions) {
+        List<StringBuilder[]> lineCells = new ArrayList<>(lines.size());
+        int columnCount = 0;
+        int rowCount = 0;
+
+        // Tabula carries the expected character width and word spacing over from one glyph to the next, across lines
+        TextElement previousGlyph = null;
+        float previousAverageCharWidth = 0;
+        float lastWordSpacing = -1;
+
+        for (List<TextElement> line : lines) {
+            StringBuilder[] cells = new StringBuilder[columnPositions.size() + 1];
+            lineCells.add(cells);
+            int previousColumn = -1;
+
+            for (TextElement glyph : line) {
+                int column = findColumn(glyph, columnPositions);
+                if (previousGlyph == null) {
+                    previousAverageCharWidth = glyph.width;
+                }
+                else {
+                    if (isDuplicate(previousGlyph, glyph)) {
+                        continue;
+                    }
+                    if (glyph.getFont() != previousGlyph.getFont()
+                            || !Utils.feq(glyph.getFontSize(), previousGlyph.getFontSize())) {
+                        previousAverageCharWidth = -1;
+                    }
+
+                    float wordSpacing = glyph.getWidthOfSpace();
+                    float spaceTolerance;
+                    if (Float.isNaN(wordSpacing) || wordSpacing == 0) {
+                        spaceTolerance = Float.MAX_VALUE;
+                    }
+                    else if (lastWordSpacing < 0) {
+                        spaceTolerance = wordSpacing * 0.5f;
+                    }
+                    else {
+                        spaceTolerance = (wordSpacing + lastWordSpacing) / 2 * 0.5f;
+                    }
+
+                    float charWidth = glyph.width / glyph.getText().length();
+                    float averageCharWidth = (previousAverageCharWidth < 0) ? charWidth
+                                                                            : (previousAverageCharWidth + charWidth) / 2;
+                    float startOfNextWord = previousGlyph.getRight() + Math.min(averageCharWidth * 0.3f,
+                                                                                spaceTolerance);
+
+                    if (column == previousColumn && startOfNextWord < glyph.getLeft()
+                            && !previousGlyph.getText().endsWith(" ")) {
+                        cells[column].append(' ');
+                        averageCharWidth = (averageCharWidth + startOfNextWord - previousGlyph.getLeft()) / 2;
+                    }
+                    lastWordSpacing = wordSpacing;
+                    previousAverageCharWidth = averageCharWidth;
+                }
+
+                if (cells[column] == null) {
+                    cells[column] = new StringBuilder();
+                }
+                cells[column].append(glyph.getText());
+                if (!glyph.getText().trim().isEmpty()) {
+                    columnCount = Math.max(columnCount, column + 1);
+                    rowCount = lineCells.size();
+                }
+                previousGlyph = glyph;
+                previousColumn = column;
+            }
+        }
+
+        List<List<RectangularTextContainer>> rows = new ArrayList<>(rowCount);
+        for (StringBuilder[] cells : lineCells.subList(0, rowCount)) {
+            List<RectangularTextContainer> row = new ArrayList<>(columnCount);
+            for (int i = 0; i < columnCount; i++) {
+                String text = (cells[i] == null) ? "" : Normalizer.normalize(cells[i], Normalizer.Form.NFKC).trim();
+                row.add(new TextCell(text));
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    /**
+     * Finds the column of a glyph, which is the first column whose right edge is not left of the glyph.
+     *
+     * @param glyph           The glyph
+     * @param columnPositions The right edges of all columns but the last one, in ascending order
+     * @return the index of the column
+     */
+    private int findColumn(TextElement glyph, List<Float> columnPositions) {
+        for (int i = 0; i < columnPositions.size(); i++) {
+            if (glyph.getLeft() <= columnPositions.get(i)) {
+                return i;
+            }
+        }
+        return columnPositions.size();
+    }
+
+    /**
+     * Checks if a glyph is a duplicate of the one before it. Some PDFs draw text twice with a small offset to make it
+     * look bold.
+     *
+     * @param previousGlyph The glyph before
+     * @param glyph         The glyph to be checked
+     * @return true if the glyph should be skipped
+     */
+    private boolean isDuplicate(TextElement previousGlyph, TextElement glyph) {
+        if (glyph.getText().equals(previousGlyph.getText()) && previousGlyph.overlapRatio(glyph) > 0.5) {
+            return true;
+        }
+        return glyph.getText().equals(" ")
+                && Utils.feq(previousGlyph.getLeft(), glyph.getLeft())
+                && Utils.feq(previousGlyph.getTop(), glyph.getTop());
+    }
+
+    private boolean isPrintable(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            Character.UnicodeBlock block = Character.UnicodeBlock.of(c);
+            if (!Character.isISOControl(c) && block != null && block != Character.UnicodeBlock.SPECIALS) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
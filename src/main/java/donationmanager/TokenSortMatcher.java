@@ -0,0 +1,221 @@
+package donationmanager;
+
+import me.xdrop.fuzzywuzzy.algorithms.DefaultStringFunction;
+
+import java.util.Arrays;
+
+/**
+ * Scores names against one name the same way FuzzySearch.tokenSortRatio does, but without processing the other names
+ * again for every comparison and without allocating anything per comparison. The other names are passed in their
+ * token sorted form, as made by makeTokenSortedForm, which can be made once and kept.
+ * <p>
+ * The token sort ratio is 100 * (T - D) / T rounded, where T is the summed length of both forms and D their edit
+ * distance with insertions and deletions only, which is T - 2 * L for the length L of their longest common
+ * subsequence. L is computed bit-parallel, with one bit per character of this matcher's name, so that a text of n
+ * characters takes n steps of a few word operations each. A comparison with a minimum score is given up as soon as
+ * the rest of the text can't raise L far enough any more.
+ * <p>
+ * A matcher keeps working memory between comparisons and must not be shared between threads.
+ */
+public class TokenSortMatcher {
+    private static final DefaultStringFunction STRING_FUNCTION = new DefaultStringFunction();
+    // Characters below this have their bit masks in a flat table, the others are looked up in a sorted array
+    private static final int TABLE_CHARS = 256;
+
+    private final int length;
+    private final int words;
+    private final long lastWordMask;
+    // The bit mask of the positions of every character in the form, words per character
+    private final long[] tableMasks;
+    private final char[] otherChars;
+    private final long[] otherMasks;
+    // The bit vector of the LCS computation, reused for every comparison
+    private final long[] vector;
+
+    /**
+     * @param name The name the other names will be compared with
+     */
+    public TokenSortMatcher(String name) {
+        String form = makeTokenSortedForm(name);
+        this.length = form.length();
+        this.words = Math.max(1, (this.length + 63) / 64);
+        if (this.length == 0) {
+            this.lastWordMask = 0;
+        }
+        else {
+            this.lastWordMask = (this.length % 64 == 0) ? -1L : (1L << (this.length % 64)) - 1;
+        }
+        this.tableMasks = new long[TABLE_CHARS * this.words];
+        this.vector = new long[this.words];
+
+        char[] otherChars = new char[this.length];
+        int otherCharCount = 0;
+        for (int i = 0; i < this.length; i++) {
+            char c = form.charAt(i);
+            if (c >= TABLE_CHARS) {
+                otherChars[otherCharCount++] = c;
+            }
+        }
+        Arrays.sort(otherChars, 0, otherCharCount);
+        int distinctCount = 0;
+        for (int i = 0; i < otherCharCount; i++) {
+            if (distinctCount == 0 || otherChars[distinctCount - 1] != otherChars[i]) {
+                otherChars[distinctCount++] = otherChars[i];
+            }
+        }
+        this.otherChars = Arrays.copyOf(otherChars, distinctCount);
+        this.otherMasks = new long[distinctCount * this.words];
+
+        for (int i = 0; i < this.length; i++) {
+            char c = form.charAt(i);
+            int offset = (c < TABLE_CHARS) ? c * this.words : this.words * Arrays.binarySearch(this.otherChars, c);
+            long[] masks = (c < TABLE_CHARS) ? this.tableMasks : this.otherMasks;
+            masks[offset + i / 64] |= 1L << (i % 64);
+        }
+    }
+
+    /**
+     * Processes a name the way FuzzySearch.tokenSortRatio does before comparing it: characters that are not letters
+     * or digits become spaces, the name is lower cased and trimmed, and its tokens are sorted and joined by spaces.
+     *
+     * @param name The name
+     * @return the token sorted form of the name
+     */
+    public static String makeTokenSortedForm(String name) {
+        String[] tokens = STRING_FUNCTION.apply(name).split("\\s+");
+        Arrays.sort(tokens);
+        return String.join(" ", tokens).trim();
+    }
+
+    /**
+     * Scores two names, just like FuzzySearch.tokenSortRatio.
+     *
+     * @param first  The first name
+     * @param second The second name
+     * @return the token sort ratio, from 0 to 100
+     */
+    public static int tokenSortRatio(String first, String second) {
+        return new TokenSortMatcher(first).score(makeTokenSortedForm(second));
+    }
+
+    /**
+     * Scores a name against the name of this matcher.
+     *
+     * @param tokenSortedForm The token sorted form of the other name
+     * @return the token sort ratio, from 0 to 100
+     */
+    public int score(String tokenSortedForm) {
+        return score(tokenSortedForm, 0);
+    }
+
+    /**
+     * Scores a name against the name of this matcher, if it reaches a minimum score.
+     *
+     * @param tokenSortedForm The token sorted form of the other name
+     * @param minimumScore    The minimum score of interest
+     * @return the token sort ratio, or -1 if it is below the minimum score
+     */
+    public int score(String tokenSortedForm, int minimumScore) {
+        int textLength = tokenSortedForm.length();
+        int total = this.length + textLength;
+        int minimumCommonLength = findMinimumCommonLength(total, minimumScore);
+        if (minimumCommonLength > Math.min(this.length, textLength)) {
+            return -1;
+        }
+
+        int commonLength = (this.words == 1)
+                           ? findCommonLengthInWord(tokenSortedForm, minimumCommonLength)
+                           : findCommonLength(tokenSortedForm, minimumCommonLength);
+        if (commonLength < minimumCommonLength) {
+            return -1;
+        }
+        return toScore(total, commonLength);
+    }
+
+    /**
+     * Computes the length of the longest common subsequence with a text, for names of up to 64 characters.
+     *
+     * @return the length, or a length below the minimum if the text can't reach it
+     */
+    private int findCommonLengthInWord(String text, int minimumCommonLength) {
+        long vector = -1L;
+        int textLength = text.length();
+        for (int j = 0; j < textLength; j++) {
+            long matches = vector & findMask(text.charAt(j), 0);
+            vector = (vector + matches) | (vector - matches);
+
+            int commonLength = Long.bitCount(~vector & this.lastWordMask);
+            if (commonLength + (textLength - j - 1) < minimumCommonLength) {
+                return -1;
+            }
+        }
+        return Long.bitCount(~vector & this.lastWordMask);
+    }
+
+    /**
+     * Computes the length of the longest common subsequence with a text, for names of any length.
+     *
+     * @return the length, or a length below the minimum if the text can't reach it
+     */
+    private int findCommonLength(String text, int minimumCommonLength) {
+        Arrays.fill(this.vector, -1L);
+        int textLength = text.length();
+        for (int j = 0; j < textLength; j++) {
+            char c = text.charAt(j);
+            long carry = 0;
+            int commonLength = 0;
+            for (int word = 0; word < this.words; word++) {
+                long vector = this.vector[word];
+                long matches = vector & findMask(c, word);
+                // The matches are a subset of the vector, so the subtraction never borrows, but the addition carries
+                long sum = vector + matches + carry;
+                carry = (Long.compareUnsigned(sum, vector) < 0 || (carry != 0 && sum == vector)) ? 1 : 0;
+                vector = sum | (vector & ~matches);
+                this.vector[word] = vector;
+                commonLength += Long.bitCount((word == this.words - 1) ? ~vector & this.lastWordMask : ~vector);
+            }
+
+            if (commonLength + (textLength - j - 1) < minimumCommonLength) {
+                return -1;
+            }
+        }
+
+        int commonLength = 0;
+        for (int word = 0; word < this.words; word++) {
+            commonLength += Long.bitCount((word == this.words - 1) ? ~this.vector[word] & this.lastWordMask
+                                                                   : ~this.vector[word]);
+        }
+        return commonLength;
+    }
+
+    private long findMask(char c, int word) {
+        if (c < TABLE_CHARS) {
+            return this.tableMasks[c * this.words + word];
+        }
+        int index = Arrays.binarySearch(this.otherChars, c);
+        return (index < 0) ? 0 : this.otherMasks[index * this.words + word];
+    }
+
+    /**
+     * Finds the shortest common subsequence that gives at least the minimum score.
+     */
+    private static int findMinimumCommonLength(int total, int minimumScore) {
+        if (minimumScore <= 0) {
+            return 0;
+        }
+        // Start a little below the exact bound, so that the rounding of toScore decides
+        int commonLength = Math.max(0, (int) ((long) total * (2 * minimumScore - 1) / 400) - 1);
+        while (2 * commonLength <= total && toScore(total, commonLength) < minimumScore) {
+            commonLength++;
+        }
+        return commonLength;
+    }
+
+    /**
+     * Computes the score the same way, down to the rounding, as FuzzySearch.tokenSortRatio does.
+     */
+    private static int toScore(int total, int commonLength) {
+        int distance = total - 2 * commonLength;
+        return (int) Math.round(100.0 * ((double) (total - distance) / (double) total));
+    }
+}
@@ -1,28 +1,78 @@
 package donationmanager;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NonNull;
-import lombok.RequiredArgsConstructor;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 
-@RequiredArgsConstructor
 @Getter
 public class Transaction {
     @NonNull
-    private String name;
+    private final String name;
 
     @NonNull
-    private String amount;
+    private final Money amount;
 
     @NonNull
-    private TransactionType transactionType;
+    private final TransactionType transactionType;
 
-    @NonNull
-    private String date;
+    /**
+     * The date of the entry, or null if the date field of the bank statement does not hold a date.
+     */
+    private final LocalDate date;
 
-    @NonNull
-    private List<String> miscText;
+    // The lines of extra text, one after the other, and the index after the end of every line
+    @Getter(AccessLevel.NONE)
+    private final String miscTextChars;
+    @Getter(AccessLevel.NONE)
+    private final int[] miscTextEnds;
+
+    public Transaction(@NonNull String name,
+                       @NonNull Money amount,
+                       @NonNull TransactionType transactionType,
+                       LocalDate date,
+                       @NonNull List<String> miscText) {
+        this.name = name;
+        this.amount = amount;
+        this.transactionType = transactionType;
+        this.date = date;
+
+        StringBuilder miscTextChars = new StringBuilder();
+        this.miscTextEnds = new int[miscText.size()];
+        for (int i = 0; i < miscText.size(); i++) {
+            miscTextChars.append(miscText.get(i));
+            this.miscTextEnds[i] = miscTextChars.length();
+        }
+        this.miscTextChars = miscTextChars.toString();
+    }
+
+    Transaction(@NonNull String name,
+                @NonNull Money amount,
+                @NonNull TransactionType transactionType,
+                LocalDate date,
+                @NonNull String miscTextChars,
+                int @NonNull [] miscTextEnds) {
+        this.name = name;
+        this.amount = amount;
+        this.transactionType = transactionType;
+        this.date = date;
+        this.miscTextChars = miscTextChars;
+        this.miscTextEnds = miscTextEnds;
+    }
 
-    private final String donationCategory = "";
+    /**
+     * @return the lines of extra text below the name on the bank statement
+     */
+    public List<String> getMiscText() {
+        List<String> miscText = new ArrayList<>(this.miscTextEnds.length);
+        int start = 0;
+        for (int end : this.miscTextEnds) {
+            miscText.add(this.miscTextChars.substring(start, end));
+            start = end;
+        }
+        return miscText;
+    }
 }
@@ -0,0 +1,249 @@
+package donationmanager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The transactions of a statement in columnar form, with one array per field. Amounts are held as cents, dates as
+ * epoch days and transaction types as their ordinals, so that a batch can be filled and read without allocating an
+ * object per transaction. The lines of extra text of all transactions are packed into one character buffer.
+ * <p>
+ * Lines of extra text are always appended to the last transaction of the batch.
+ */
+public class TransactionBatch {
+    private static final int NO_DATE = Integer.MIN_VALUE;
+    private static final int INITIAL_CAPACITY = 16;
+    private static final TransactionType[] TRANSACTION_TYPES = TransactionType.values();
+
+    private String[] names = new String[INITIAL_CAPACITY];
+    private long[] cents = new long[INITIAL_CAPACITY];
+    private byte[] transactionTypes = new byte[INITIAL_CAPACITY];
+    private int[] epochDays = new int[INITIAL_CAPACITY];
+    // The index of the first line of extra text of every transaction, and of the next one after the last transaction
+    private int[] firstMiscTextLines = new int[INITIAL_CAPACITY + 1];
+    private int size;
+
+    private final StringBuilder miscTextChars = new StringBuilder();
+    // The index after the end of every line of extra text in miscTextChars
+    private int[] miscTextEnds = new int[INITIAL_CAPACITY];
+    private int miscTextLineCount;
+
+    /**
+     * Makes a batch out of transactions.
+     *
+     * @param transactions The transactions
+     * @return the batch
+     */
+    public static TransactionBatch of(List<Transaction> transactions) {
+        TransactionBatch batch = new TransactionBatch();
+        for (Transaction transaction : transactions) {
+            batch.add(transaction);
+        }
+        return batch;
+    }
+
+    /**
+     * Adds a transaction without extra text at the end of the batch.
+     *
+     * @param name            The name of the transaction
+     * @param cents           The amount in cents
+     * @param transactionType The type of the transaction
+     * @param date            The date of the transaction, or null if there is none
+     */
+    public void add(String name, long cents, TransactionType transactionType, LocalDate date) {
+        Objects.requireNonNull(name, "name is marked non-null but is null");
+        Objects.requireNonNull(transactionType, "transactionType is marked non-null but is null");
+        if (this.size == this.names.length) {
+            int capacity = 2 * this.size;
+            this.names = Arrays.copyOf(this.names, capacity);
+            this.cents = Arrays.copyOf(this.cents, capacity);
+            this.transactionTypes = Arrays.copyOf(this.transactionTypes, capacity);
+            this.epochDays = Arrays.copyOf(this.epochDays, capacity);
+            this.firstMiscTextLines = Arrays.copyOf(this.firstMiscTextLines, capacity + 1);
+        }
+
+        this.names[this.size] = name;
+        this.cents[this.size] = cents;
+        this.transactionTypes[this.size] = (byte) transactionType.ordinal();
+        this.epochDays[this.size] = (date == null) ? NO_DATE : Math.toIntExact(date.toEpochDay());
+        this.firstMiscTextLines[this.size] = this.miscTextLineCount;
+        this.size++;
+        this.firstMiscTextLines[this.size] = this.miscTextLineCount;
+    }
+
+    /**
+     * Adds a transaction, with its extra text, at the end of the batch.
+     *
+     * @param transaction The transaction
+     */
+    public void add(Transaction transaction) {
+        add(transaction.getName(),
+            transaction.getAmount().getCents(),
+            transaction.getTransactionType(),
+            transaction.getDate());
+        for (String line : transaction.getMiscText()) {
+            appendMiscText(line);
+        }
+    }
+
+    /**
+     * Adds all transactions of another batch at the end of this batch.
+     *
+     * @param other The batch to be added
+     */
+    public void addAll(TransactionBatch other) {
+        for (int i = 0; i < other.size; i++) {
+            add(other, i);
+        }
+    }
+
+    /**
+     * Adds a transaction of another batch, with its extra text, at the end of this batch.
+     *
+     * @param other The batch holding the transaction
+     * @param index The index of the transaction in the other batch
+     * @throws IndexOutOfBoundsException if there is no such transaction
+     */
+    public void add(TransactionBatch other, int index) {
+        add(other.getName(index), other.cents[index], other.getTransactionType(index), other.getDate(index));
+        for (int line = other.firstMiscTextLines[index]; line < other.firstMiscTextLines[index + 1]; line++) {
+            appendMiscText(other.getMiscTextLine(line));
+        }
+    }
+
+    /**
+     * Appends a line of extra text to the last transaction of the batch.
+     *
+     * @param line The line of text
+     * @throws IllegalStateException if the batch is empty
+     */
+    public void appendMiscText(String line) {
+        if (this.size == 0) {
+            throw new IllegalStateException("There is no transaction to append the text to.");
+        }
+        if (this.miscTextLineCount == this.miscTextEnds.length) {
+            this.miscTextEnds = Arrays.copyOf(this.miscTextEnds, 2 * this.miscTextLineCount);
+        }
+
+        this.miscTextChars.append(line);
+        this.miscTextEnds[this.miscTextLineCount] = this.miscTextChars.length();
+        this.miscTextLineCount++;
+        this.firstMiscTextLines[this.size] = this.miscTextLineCount;
+    }
+
+    /**
+     * @return the number of transactions
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * @param index The index of the transaction
+     * @return the name of the transaction
+     * @throws IndexOutOfBoundsException if there is no such transaction
+     */
+    public String getName(int index) {
+        Objects.checkIndex(index, this.size);
+        return this.names[index];
+    }
+
+    /**
+     * @param index The index of the transaction
+     * @return the amount of the transaction in cents
+     * @throws IndexOutOfBoundsException if there is no such transaction
+     */
+    public long getCents(int index) {
+        Objects.checkIndex(index, this.size);
+        return this.cents[index];
+    }
+
+    /**
+     * @param index The index of the transaction
+     * @return the amount of the transaction
+     * @throws IndexOutOfBoundsException if there is no such transaction
+     */
+    public Money getAmount(int index) {
+        return Money.ofCents(getCents(index));
+    }
+
+    /**
+     * @param index The index of the transaction
+     * @return the type of the transaction
+     * @throws IndexOutOfBoundsException if there is no such transaction
+     */
+    public TransactionType getTransactionType(int index) {
+        Objects.checkIndex(index, this.size);
+        return TRANSACTION_TYPES[this.transactionTypes[index]];
+    }
+
+    /**
+     * @param index The index of the transaction
+     * @return the date of the transaction, or null if it has none
+     * @throws IndexOutOfBoundsException if there is no such transaction
+     */
+    public LocalDate getDate(int index) {
+        Objects.checkIndex(index, this.size);
+        int epochDay = this.epochDays[index];
+        return (epochDay == NO_DATE) ? null : LocalDate.ofEpochDay(epochDay);
+    }
+
+    /**
+     * @param index The index of the transaction
+     * @return the lines of extra text of the transaction
+     * @throws IndexOutOfBoundsException if there is no such transaction
+     */
+    public List<String> getMiscText(int index) {
+        Objects.checkIndex(index, this.size);
+        List<String> miscText = new ArrayList<>();
+        for (int line = this.firstMiscTextLines[index]; line < this.firstMiscTextLines[index + 1]; line++) {
+            miscText.add(getMiscTextLine(line));
+        }
+        return miscText;
+    }
+
+    /**
+     * Makes a Transaction out of one transaction of the batch.
+     *
+     * @param index The index of the transaction
+     * @return the transaction
+     * @throws IndexOutOfBoundsException if there is no such transaction
+     */
+    public Transaction get(int index) {
+        Objects.checkIndex(index, this.size);
+        int firstLine = this.firstMiscTextLines[index];
+        int endLine = this.firstMiscTextLines[index + 1];
+        int start = (firstLine == 0) ? 0 : this.miscTextEnds[firstLine - 1];
+        int end = (endLine == 0) ? 0 : this.miscTextEnds[endLine - 1];
+
+        int[] miscTextEnds = new int[endLine - firstLine];
+        for (int line = firstLine; line < endLine; line++) {
+            miscTextEnds[line - firstLine] = this.miscTextEnds[line] - start;
+        }
+        return new Transaction(this.names[index],
+                               Money.ofCents(this.cents[index]),
+                               TRANSACTION_TYPES[this.transactionTypes[index]],
+                               getDate(index),
+                               this.miscTextChars.substring(start, end),
+                               miscTextEnds);
+    }
+
+    /**
+     * @return all transactions of the batch, in order
+     */
+    public List<Transaction> toList() {
+        List<Transaction> transactions = new ArrayList<>(this.size);
+        for (int i = 0; i < this.size; i++) {
+            transactions.add(get(i));
+        }
+        return transactions;
+    }
+
+    private String getMiscTextLine(int line) {
+        int start = (line == 0) ? 0 : this.miscTextEnds[line - 1];
+        return this.miscTextChars.substring(start, this.miscTextEnds[line]);
+    }
+}
@@ -2,182 +2,288 @@ package donationmanager;
 
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
+import lombok.Setter;
 import technology.tabula.RectangularTextContainer;
 
-import java.util.ArrayList;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.Iterator;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.Stream;
 
 @RequiredArgsConstructor
 public class TransactionManager {
     @NonNull
-    private List<List<RectangularTextContainer>> table;
-    private final List<Transaction> transactions = new ArrayList<>();
+    private final StatementTable table;
+    private final TransactionBatch transactions = new TransactionBatch();
+    private final AmountScanner amountScanner = new AmountScanner();
 
     /**
-     * Makes a list of Transactions based on the extracted table.
+     * The number of worker threads used to read the table. With 1 (the default) the table is read in one go on the
+     * calling thread. Otherwise it is split into chunks of whole entries, which are read concurrently.
+     */
+    @Setter
+    private int parallelism = 1;
+
+    /**
+     * @param table The table extracted from a bank statement, as a 2d List of Tabula RectangularTextContainer objects
+     */
+    public TransactionManager(List<List<RectangularTextContainer>> table) {
+        this(StatementTable.of(table));
+    }
+
+    /**
+     * Makes a list of Transactions based on the extracted table. The table is read in a single pass from top to
+     * bottom: every row is looked at once, and the extra text below a transaction is added to it as the rows are
+     * read. The transactions of a grouped entry are held back until the end of the entry, since only then it is known
+     * if their amounts add up to the total.
+     * <p>
+     * In parallel mode, the table is split into chunks that start at a dated row, so that every entry lies within one
+     * chunk. The transactions of the chunks are concatenated in the order of the table, which gives the same list as
+     * reading the table in one go.
      *
      * @return A list of Transactions
      */
     public List<Transaction> makeTransactionList() {
-        for (int rowNumber = 0; rowNumber < this.table.size(); rowNumber++) {
-            List<RectangularTextContainer> row = this.table.get(rowNumber);
+        return makeTransactionBatch().toList();
+    }
+
+    /**
+     * Reads the transactions out of the extracted table into a batch, just like makeTransactionList, without making an
+     * object per transaction.
+     *
+     * @return A batch of the transactions
+     */
+    public TransactionBatch makeTransactionBatch() {
+        if (this.parallelism > 1 && this.table.size() > 1) {
+            this.transactions.addAll(makeTransactionBatchInParallel());
+            return this.transactions;
+        }
+        return makeTransactionBatch(0, this.table.size());
+    }
 
-            String date = row.get(0).getText();
-            String text = row.get(1).getText();
+    /**
+     * Reads the transactions out of the rows of a table while they are still being extracted. Every entry is read as
+     * soon as the first row of the next entry has arrived, and its rows are dropped right after, so that only the rows
+     * of the entry being read are kept in memory. Reading the transactions therefore overlaps with extracting the
+     * table, and the extracted cells of a row can be garbage collected as soon as their text has been taken over.
+     * Gives the same transactions as reading the whole table.
+     *
+     * @param rows The rows of the table, as streamed by a BankStatementReader
+     * @return A batch of the transactions
+     */
+    public static TransactionBatch readTransactions(Stream<? extends List<? extends RectangularTextContainer>> rows) {
+        TransactionManager transactionManager = new TransactionManager(new StatementTable());
+        StatementTable table = transactionManager.table;
+
+        Iterator<? extends List<? extends RectangularTextContainer>> rowIterator = rows.iterator();
+        while (rowIterator.hasNext()) {
+            table.addRow(rowIterator.next());
+            int rowNumber = table.size() - 1;
+            if (rowNumber > 0 && !table.getCell(rowNumber, StatementTable.DATE).isBlank()) {
+                transactionManager.makeTransactionBatch(0, rowNumber);
+                table.removeRowsBefore(rowNumber);
+            }
+        }
+        return transactionManager.makeTransactionBatch(0, table.size());
+    }
 
-            if (date.isBlank()) {
+    /**
+     * Reads the transactions out of a range of rows. The range has to start at the first row of the table or at a dated
+     * row, and end at the end of the table or before a dated row.
+     *
+     * @param firstRowNumber The number of the first row of the range
+     * @param endRowNumber   The number of the row after the range
+     * @return A batch of the transactions
+     */
+    private TransactionBatch makeTransactionBatch(int firstRowNumber, int endRowNumber) {
+        GroupedEntry groupedEntry = null;
+        // The batch holding the transaction read last, as long as more of its extra text may follow
+        TransactionBatch miscTextBatch = null;
+
+        for (int rowNumber = firstRowNumber; rowNumber < endRowNumber; rowNumber++) {
+            String date = this.table.getCell(rowNumber, StatementTable.DATE);
+            String text = this.table.getCell(rowNumber, StatementTable.TEXT);
+            boolean isLastRowOfEntry = !getDateOnNextRow(rowNumber).isBlank();
+
+            if (!date.isBlank()) {
+                completeGroupedEntry(groupedEntry);
+                groupedEntry = null;
+
+                if ((text.equals("Postcheckeingang") || text.equals("Belast. E-Banking")) && !isLastRowOfEntry) {
+                    groupedEntry = new GroupedEntry(rowNumber, extractGroupedEntryTotal(rowNumber));
+                    miscTextBatch = null;
+                }
+                else {
+                    addSingleEntryTransaction(rowNumber);
+                    miscTextBatch = this.transactions;
+                }
                 continue;
             }
 
-            String dateOnNextRow = getDateOnNextRow(rowNumber);
-
-            if ((text.equals("Postcheckeingang") || text.equals("Belast. E-Banking")) && dateOnNextRow.isBlank()) {
-                handleGroupedEntry(rowNumber);
+            if (groupedEntry == null) {
+                if (miscTextBatch != null) {
+                    miscTextBatch.appendMiscText(text);
+                }
+                continue;
             }
 
+            if (!this.amountScanner.find(text)) {
+                if (miscTextBatch != null) {
+                    miscTextBatch.appendMiscText(text);
+                }
+            }
+            // The last row of a grouped entry neither counts towards its total nor starts a transaction
+            else if (!isLastRowOfEntry) {
+                groupedEntry.checkTotal = groupedEntry.checkTotal.plus(Money.ofCents(this.amountScanner.getCents()));
+                addGroupedEntryTransaction(groupedEntry, rowNumber, getFoundAmount(text));
+                miscTextBatch = groupedEntry.transactions;
+            }
             else {
-                Transaction transaction = extractTransaction(EntryType.SINGLE, rowNumber);
-                this.transactions.add(transaction);
+                miscTextBatch = null;
             }
         }
+
+        completeGroupedEntry(groupedEntry);
         return this.transactions;
     }
 
-
     /**
-     * This method is used for entries in the bank statement that have multiple transactions grouped together.
+     * Reads the table on a fork-join pool with as many workers as the configured parallelism. The table is split into
+     * one chunk per worker, and every chunk is read by its own TransactionManager.
      *
-     * @param startingRowNumber The row number where the grouped entry starts
+     * @return the transactions of all chunks, in the order of the table
      */
-    private void handleGroupedEntry(int startingRowNumber) {
-        if (!canHandleGroupedEntry(startingRowNumber)) {
-            return;
+    private TransactionBatch makeTransactionBatchInParallel() {
+        int rowsPerChunk = (this.table.size() + this.parallelism - 1) / this.parallelism;
+        ForkJoinPool pool = new ForkJoinPool(this.parallelism);
+        try {
+            return pool.invoke(new RowRangeParsing(0, this.table.size(), rowsPerChunk));
         }
+        finally {
+            pool.shutdown();
+        }
+    }
 
-        for (int rowNumber = startingRowNumber + 1; rowNumber < this.table.size(); rowNumber++) {
-
-            String dateOnNextRow = getDateOnNextRow(rowNumber);
-            if (!dateOnNextRow.isBlank()) {
-                return;
+    /**
+     * Finds the first dated row of a range, where an entry starts.
+     *
+     * @param firstRowNumber The number of the first row of the range
+     * @param endRowNumber   The number of the row after the range
+     * @return The number of the first dated row, or endRowNumber if there is none
+     */
+    private int findStartOfEntry(int firstRowNumber, int endRowNumber) {
+        for (int rowNumber = firstRowNumber; rowNumber < endRowNumber; rowNumber++) {
+            if (!this.table.getCell(rowNumber, StatementTable.DATE).isBlank()) {
+                return rowNumber;
             }
+        }
+        return endRowNumber;
+    }
 
-            String text = this.table.get(rowNumber).get(1).getText();
-            if (isRowStartOfNewTransaction(text)) {
-                Transaction transaction = extractTransaction(EntryType.GROUPED, rowNumber);
-                this.transactions.add(transaction);
-            }
+    /**
+     * Adds the transactions of a grouped entry, once all of its rows have been read. If their amounts don't add up to
+     * the total, the program can't handle this entry and skips it, so the user has to manually add it instead.
+     *
+     * @param groupedEntry The grouped entry, or null if the rows read last were not part of a grouped entry
+     */
+    private void completeGroupedEntry(GroupedEntry groupedEntry) {
+        if (groupedEntry != null && groupedEntry.totalAmount.equals(groupedEntry.checkTotal)) {
+            this.transactions.addAll(groupedEntry.transactions);
         }
     }
 
     /**
-     * Checks if the grouped entry can be handled by this program. Check the text fields in the entries for currency
-     * amount patterns and sees if they, added together match the total. If not, this method returns false, the program
-     * skips this entry and the user has to manually add it instead.
+     * Extracts the total amount of a grouped entry from its starting row.
      *
      * @param startingRowNumber The row number where the grouped entry starts
-     * @return A boolean saying if the program can handle this grouped entry
+     * @return The total amount
      * @throws RuntimeException if no total donated amount is found
      */
-    private boolean canHandleGroupedEntry(int startingRowNumber) {
-        double totalAmount;
-        List<RectangularTextContainer> startingRow = this.table.get(startingRowNumber);
-        String debitField = startingRow.get(3).getText();
-        String creditField = startingRow.get(4).getText();
+    private Money extractGroupedEntryTotal(int startingRowNumber) {
+        String debitField = this.table.getCell(startingRowNumber, StatementTable.DEBIT);
+        String creditField = this.table.getCell(startingRowNumber, StatementTable.CREDIT);
         if (!debitField.isBlank()) {
-            totalAmount = Double.parseDouble(debitField.replaceAll("'", ""));
+            return Money.parse(debitField);
         }
         else if (!creditField.isBlank()) {
-            totalAmount = Double.parseDouble(creditField.replaceAll("'", ""));
+            return Money.parse(creditField);
         }
         else {
             throw new RuntimeException("No total amount was found in grouped entry.");
         }
-
-        double checkTotal = 0;
-        for (int rowNumber = startingRowNumber + 1; rowNumber < this.table.size(); rowNumber++) {
-
-            String dateOnNextRow = getDateOnNextRow(rowNumber);
-            if (!dateOnNextRow.isBlank()) {
-                return totalAmount == checkTotal;
-            }
-
-            String text = this.table.get(rowNumber).get(1).getText();
-            double amount =
-                    !extractAmountFromText(text).isBlank() ? Double.parseDouble(extractAmountFromText(text)) : 0;
-
-            checkTotal += amount;
-        }
-
-        return totalAmount == checkTotal;
     }
 
     /**
-     * Checks if the current row is the start of a new transaction in a grouped entry. It does this by looking if the
-     * text field contains a currency amount pattern. (Because in grouped entries, the amount donated is included in the
-     * text field instead of being separate.)
+     * Extracts a transaction from a regular, SINGLE entry and adds it to the transactions. Its extra text is appended
+     * as its rows are read.
      *
-     * @param text The String in the text field
-     * @return a boolean saying if the current row is the start of a new transaction or not
+     * @param rowNumber The row number of the entry
      */
-    private boolean isRowStartOfNewTransaction(String text) {
-        return !extractAmountFromText(text).isBlank();
+    private void addSingleEntryTransaction(int rowNumber) {
+        String name = this.table.getCell(rowNumber, StatementTable.TEXT).replace("Gutschrift ", "");
+        Money amount = extractAmount(EntryType.SINGLE, rowNumber);
+        TransactionType transactionType = extractTransactionType(rowNumber);
+        LocalDate date = parseDate(this.table.getCell(rowNumber, StatementTable.DATE));
+
+        this.transactions.add(name, amount.getCents(), transactionType, date);
     }
 
     /**
-     * Extracts a transaction from the table.
+     * Extracts a transaction from a GROUPED entry and adds it to the transactions of the entry. The date and
+     * transaction type are read from the starting row of the grouped entry, since the rows of its transactions only
+     * have a name and an amount.
      *
-     * @param entryType The type of entry the transaction is being extracted from. Can be either a regular, SINGLE
-     *                  entry, or a GROUPED entry.
-     * @param rowNumber The starting row of the entry to extract from.
-     * @return A new Transaction containing all of its extracted information
+     * @param groupedEntry The grouped entry the transaction belongs to
+     * @param rowNumber    The row number of the transaction
+     * @param amountInText The currency amount found in the text field of the row
      */
-    private Transaction extractTransaction(EntryType entryType, int rowNumber) {
-        List<RectangularTextContainer> row = this.table.get(rowNumber);
-
-        String name = row.get(1).getText();
-        name = name.replace("Gutschrift ", "");
-        if (entryType == EntryType.GROUPED) {
-            String amount = extractAmountFromText(name);
-            name = name.replace(amount, "");
-        }
-
-        String amount = extractAmount(entryType, rowNumber);
-        List<String> miscText = extractExtraText(entryType, rowNumber);
+    private void addGroupedEntryTransaction(GroupedEntry groupedEntry, int rowNumber, String amountInText) {
+        String text = this.table.getCell(rowNumber, StatementTable.TEXT);
+        String name = text.replace("Gutschrift ", "");
+        name = name.replace(name.equals(text) ? amountInText : extractAmountFromText(name), "");
 
-        // For Grouped entries, the rest of the info (date and transaction type) can be read from
-        // its starting row.
-        if (entryType == EntryType.GROUPED) {
-            rowNumber = getStartingRowNumber(rowNumber);
-        }
+        Money amount = extractAmount(EntryType.GROUPED, rowNumber);
 
-        TransactionType transactionType = extractTransactionType(rowNumber);
-        String date = table.get(rowNumber).get(0).getText();
-
-        return new Transaction(name, amount, transactionType, date, miscText);
+        groupedEntry.transactions.add(name, amount.getCents(), groupedEntry.transactionType, groupedEntry.date);
     }
 
     /**
-     * Gets the index of the starting row of the current grouped entry.
+     * Reads a date as it is written on a bank statement, like 03.04.23 for the 3rd of April 2023.
      *
-     * @param rowNumber The row number of the current Transaction in a grouped entry.
-     * @return The index of the starting row of the current grouped entry.
-     * @throws RuntimeException if no starting row is found
+     * @param dateField The contents of the Date field
+     * @return The date, or null if the field does not hold a valid date
      */
-    private int getStartingRowNumber(int rowNumber) {
-        for (int i = rowNumber; i >= 0; i--) {
-            List<RectangularTextContainer> row = this.table.get(i);
-            RectangularTextContainer dateField = row.get(0);
+    static LocalDate parseDate(String dateField) {
+        String date = dateField.strip();
+        if (date.length() != 8 || date.charAt(2) != '.' || date.charAt(5) != '.') {
+            return null;
+        }
 
-            if (!dateField.getText().isBlank()) {
-                return i;
-            }
+        int day = parseTwoDigits(date, 0);
+        int month = parseTwoDigits(date, 3);
+        int year = parseTwoDigits(date, 6);
+        if (day < 0 || month < 0 || year < 0) {
+            return null;
+        }
+
+        try {
+            return LocalDate.of(2000 + year, month, day);
+        }
+        catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    private static int parseTwoDigits(String text, int start) {
+        char tens = text.charAt(start);
+        char ones = text.charAt(start + 1);
+        if (tens < '0' || tens > '9' || ones < '0' || ones > '9') {
+            return -1;
         }
-        List<RectangularTextContainer> row = this.table.get(rowNumber);
-        RectangularTextContainer nameField = row.get(1);
-        throw new RuntimeException(String.format("No starting row was found at the grouped entry with: %s",
-                                                 nameField.getText()));
+        return 10 * (tens - '0') + (ones - '0');
     }
 
     /**
@@ -187,21 +293,18 @@ public class TransactionManager {
      *                  entry, or a GROUPED entry.
      * @param rowNumber The row number of the current entry.
      * @return The extracted amount
+     * @throws NumberFormatException If the amount field of a regular entry does not hold an amount.
      */
-    private String extractAmount(EntryType entryType, int rowNumber) {
-        String result;
+    private Money extractAmount(EntryType entryType, int rowNumber) {
         switch (entryType) {
             case SINGLE:
-                result = extractSingleEntryAmount(rowNumber);
-                break;
+                return Money.parse(extractSingleEntryAmount(rowNumber));
             case GROUPED:
-                result = extractGroupedEntryAmount(rowNumber);
-                break;
+                return extractGroupedEntryAmount(rowNumber);
             default:
                 throw new RuntimeException(String.format("No valid entry type for: %s",
-                                                         table.get(rowNumber).get(1).getText()));
+                                                         this.table.getCell(rowNumber, StatementTable.TEXT)));
         }
-        return result.replaceAll("'", "");
     }
 
     /**
@@ -212,22 +315,21 @@ public class TransactionManager {
      * @throws RuntimeException If not amount is found.
      */
     private String extractSingleEntryAmount(int rowNumber) {
-        List<RectangularTextContainer> row = this.table.get(rowNumber);
-        RectangularTextContainer dateField = row.get(0);
-        RectangularTextContainer nameField = row.get(1);
-        RectangularTextContainer debitField = row.get(3);
-        RectangularTextContainer creditField = row.get(4);
-
-        if (!debitField.getText().isBlank()) {
-            return debitField.getText();
+        String dateField = this.table.getCell(rowNumber, StatementTable.DATE);
+        String nameField = this.table.getCell(rowNumber, StatementTable.TEXT);
+        String debitField = this.table.getCell(rowNumber, StatementTable.DEBIT);
+        String creditField = this.table.getCell(rowNumber, StatementTable.CREDIT);
+
+        if (!debitField.isBlank()) {
+            return debitField;
         }
-        else if (!creditField.getText().isBlank()) {
-            return creditField.getText();
+        else if (!creditField.isBlank()) {
+            return creditField;
         }
         else {
             throw new RuntimeException(String.format("No amount was found for entry: %s on " + "%s",
-                                                     nameField.getText(),
-                                                     dateField.getText()));
+                                                     nameField,
+                                                     dateField));
         }
     }
 
@@ -238,53 +340,17 @@ public class TransactionManager {
      * @return The extracted amount
      * @throws RuntimeException If not amount is found.
      */
-    private String extractGroupedEntryAmount(int rowNumber) {
-        List<RectangularTextContainer> row = this.table.get(rowNumber);
-        RectangularTextContainer dateField = row.get(0);
-        RectangularTextContainer nameField = row.get(1);
-
-        String amount = extractAmountFromText(nameField.getText()).trim();
+    private Money extractGroupedEntryAmount(int rowNumber) {
+        String dateField = this.table.getCell(rowNumber, StatementTable.DATE);
+        String nameField = this.table.getCell(rowNumber, StatementTable.TEXT);
 
-        if (amount.isBlank()) {
+        if (!this.amountScanner.find(nameField)) {
             throw new RuntimeException(String.format("No amount was found for Transaction: %s on " + "%s",
-                                                     nameField.getText(),
-                                                     dateField.getText()));
+                                                     nameField,
+                                                     dateField));
         }
 
-        return amount;
-    }
-
-    /**
-     * Extracts the extra text provided besides the name the table.
-     *
-     * @param entryType The type of the entry the transaction is being extracted from. Can be either a regular, SINGLE
-     *                  entry, or a GROUPED entry.
-     * @param rowNumber The row number of the current entry.
-     * @return The extracted text.
-     */
-    private List<String> extractExtraText(EntryType entryType, int rowNumber) {
-        List<String> miscText = new ArrayList<>();
-
-        for (int i = rowNumber + 1; i < this.table.size(); i++) {
-            List<RectangularTextContainer> row = this.table.get(i);
-            RectangularTextContainer textField = row.get(1);
-            RectangularTextContainer dateField = row.get(0);
-
-            boolean continueCondition = false;
-            if (entryType == EntryType.SINGLE) {
-                continueCondition = dateField.getText().isBlank();
-            }
-            else if (entryType == EntryType.GROUPED) {
-                continueCondition = dateField.getText().isBlank() && !isRowStartOfNewTransaction(textField.getText());
-            }
-
-            if (!continueCondition) {
-                break;
-            }
-
-            miscText.add(textField.getText());
-        }
-        return miscText;
+        return Money.ofCents(this.amountScanner.getCents());
     }
 
     /**
@@ -294,22 +360,21 @@ public class TransactionManager {
      * @return The transaction Type. Can be DEBIT or CREDIT.
      */
     private TransactionType extractTransactionType(int rowNumber) {
-        List<RectangularTextContainer> row = this.table.get(rowNumber);
-        RectangularTextContainer dateField = row.get(0);
-        RectangularTextContainer nameField = row.get(1);
-        RectangularTextContainer debitField = row.get(3);
-        RectangularTextContainer creditField = row.get(4);
+        String dateField = this.table.getCell(rowNumber, StatementTable.DATE);
+        String nameField = this.table.getCell(rowNumber, StatementTable.TEXT);
+        String debitField = this.table.getCell(rowNumber, StatementTable.DEBIT);
+        String creditField = this.table.getCell(rowNumber, StatementTable.CREDIT);
 
-        if (!debitField.getText().isBlank()) {
+        if (!debitField.isBlank()) {
             return TransactionType.DEBIT;
         }
-        else if (!creditField.getText().isBlank()) {
+        else if (!creditField.isBlank()) {
             return TransactionType.CREDIT;
         }
         else {
             throw new RuntimeException(String.format("No transaction type was found for: %s on " + "%s",
-                                                     nameField.getText(),
-                                                     dateField.getText()));
+                                                     nameField,
+                                                     dateField));
         }
     }
 
@@ -324,45 +389,103 @@ public class TransactionManager {
         if (rowNumber + 1 == this.table.size()) {
             return "";
         }
-        return this.table.get(rowNumber + 1).get(0).getText();
+        return this.table.getCell(rowNumber + 1, StatementTable.DATE);
     }
 
     /**
-     * Uses regex to extract a currency amount from a string. The amount can have the format (1'111.11)
+     * Extracts a currency amount from a string. The amount can have the format (1'111.11)
      *
      * @param text The String to be searched for a currency amount.
      * @return The amount, if any is found, stripped of the digit group separator (') to prevent further issues.
      */
     private String extractAmountFromText(String text) {
-        Pattern pattern = Pattern.compile("(^|\\s)(\\d|')+\\.\\d\\d($|\\s)");
-        Matcher matcher = pattern.matcher(text);
-        if (matcher.find()) {
-            return matcher.group().replaceAll("'", "");
+        if (this.amountScanner.find(text)) {
+            return getFoundAmount(text);
         }
         else {
             return "";
         }
     }
 
+    /**
+     * Gets the currency amount the amount scanner found last, as it is written in the text.
+     *
+     * @param text The String the amount was found in.
+     * @return The amount, together with the whitespace around it, stripped of the digit group separator (').
+     */
+    private String getFoundAmount(String text) {
+        String amount = text.substring(this.amountScanner.getStart(), this.amountScanner.getEnd());
+        return AmountScanner.removeDigitGroupSeparators(amount);
+    }
+
     /**
      * A testing method to print the list of transactions.
      */
     @SuppressWarnings("unused")
     public void printTransactions() {
-        for (Transaction transaction : transactions) {
-            System.out.printf("Name: %s%n", transaction.getName());
-            System.out.printf("Amount: %s%n", transaction.getAmount());
-            System.out.printf("Type: %s%n", transaction.getTransactionType());
-            System.out.printf("Date: %s%n", transaction.getDate());
+        for (int i = 0; i < this.transactions.size(); i++) {
+            System.out.printf("Name: %s%n", this.transactions.getName(i));
+            System.out.printf("Amount: %s%n", this.transactions.getAmount(i));
+            System.out.printf("Type: %s%n", this.transactions.getTransactionType(i));
+            System.out.printf("Date: %s%n", this.transactions.getDate(i));
             System.out.println("Text: ");
-            for (String line : transaction.getMiscText()) {
+            for (String line : this.transactions.getMiscText(i)) {
                 System.out.printf("      %s%n", line);
             }
-            System.out.printf("Category: %s%n", transaction.getDonationCategory());
             System.out.println("--------------------------");
         }
     }
-}
 
+    /**
+     * Reads the transactions out of a range of rows. Ranges bigger than a chunk are split in half at the first dated
+     * row after the middle and read concurrently. The rows after the end of a range are still looked at to find the end
+     * of its last entry, since the whole table is shared by all ranges.
+     */
+    @RequiredArgsConstructor
+    private class RowRangeParsing extends RecursiveTask<TransactionBatch> {
+        private final int firstRowNumber;
+        private final int endRowNumber;
+        private final int rowsPerChunk;
+
+        @Override
+        protected TransactionBatch compute() {
+            if (this.endRowNumber - this.firstRowNumber > this.rowsPerChunk) {
+                int middleRowNumber = findStartOfEntry((this.firstRowNumber + this.endRowNumber) / 2,
+                                                       this.endRowNumber);
+                if (middleRowNumber < this.endRowNumber) {
+                    RowRangeParsing firstHalf = new RowRangeParsing(this.firstRowNumber,
+                                                                    middleRowNumber,
+                                                                    this.rowsPerChunk);
+                    RowRangeParsing secondHalf = new RowRangeParsing(middleRowNumber,
+                                                                     this.endRowNumber,
+                                                                     this.rowsPerChunk);
+                    secondHalf.fork();
+
+                    TransactionBatch transactions = firstHalf.compute();
+                    transactions.addAll(secondHalf.join());
+                    return transactions;
+                }
+            }
 
+            TransactionManager chunkManager = new TransactionManager(table);
+            return chunkManager.makeTransactionBatch(this.firstRowNumber, this.endRowNumber);
+        }
+    }
 
+    /**
+     * A grouped entry whose rows are being read.
+     */
+    private class GroupedEntry {
+        private final Money totalAmount;
+        private final TransactionType transactionType;
+        private final LocalDate date;
+        private final TransactionBatch transactions = new TransactionBatch();
+        private Money checkTotal = Money.ZERO;
+
+        GroupedEntry(int startingRowNumber, Money totalAmount) {
+            this.totalAmount = totalAmount;
+            this.transactionType = extractTransactionType(startingRowNumber);
+            this.date = parseDate(table.getCell(startingRowNumber, StatementTable.DATE));
+        }
+    }
+}
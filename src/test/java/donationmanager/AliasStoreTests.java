@@ -0,0 +1,109 @@
+package donationmanager;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AliasStoreTests {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void test_remember_decisions_across_runs() throws IOException {
+        // given
+        File aliasFile = this.tempDir.resolve("aliases").resolve("aliases.log").toFile();
+
+        AliasStore aliasStore = AliasStore.load(aliasFile);
+        aliasStore.record("MEIER ANNA ", "D000001", true);
+        aliasStore.record("MEIER ANNA", "D000002", false);
+        aliasStore.record("HUBER B.", "D000003", true);
+        aliasStore.record("HUBER B.", "D000003", false);
+
+        // when
+        AliasStore loadedAliasStore = AliasStore.load(aliasFile);
+
+        // then
+        assertEquals(4, loadedAliasStore.size());
+        assertEquals(Optional.of("D000001"), loadedAliasStore.findConfirmedDonorCode("MEIER ANNA"));
+        assertFalse(loadedAliasStore.isRejected("MEIER ANNA", "D000001"));
+        assertTrue(loadedAliasStore.isRejected("MEIER ANNA", "D000002"));
+        // The later rejection replaces the confirmation
+        assertEquals(Optional.empty(), loadedAliasStore.findConfirmedDonorCode("HUBER B."));
+        assertTrue(loadedAliasStore.isRejected("HUBER B.", "D000003"));
+        assertEquals(Optional.empty(), loadedAliasStore.findConfirmedDonorCode("ROTH URS"));
+    }
+
+    @Test
+    public void test_cut_off_partly_written_decision() throws IOException {
+        // given
+        File aliasFile = this.tempDir.resolve("aliases.log").toFile();
+
+        AliasStore aliasStore = AliasStore.load(aliasFile);
+        aliasStore.record("MEIER ANNA", "D000001", true);
+        aliasStore.record("HUBER B.", "D000003", true);
+        try (RandomAccessFile file = new RandomAccessFile(aliasFile, "rw")) {
+            file.setLength(file.length() - 3);
+        }
+
+        // when
+        AliasStore loadedAliasStore = AliasStore.load(aliasFile);
+        loadedAliasStore.record("ROTH URS", "D000004", true);
+
+        // then
+        assertEquals(2, loadedAliasStore.size());
+        AliasStore reloadedAliasStore = AliasStore.load(aliasFile);
+        assertEquals(2, reloadedAliasStore.size());
+        assertEquals(Optional.of("D000001"), reloadedAliasStore.findConfirmedDonorCode("MEIER ANNA"));
+        assertEquals(Optional.empty(), reloadedAliasStore.findConfirmedDonorCode("HUBER B."));
+        assertEquals(Optional.of("D000004"), reloadedAliasStore.findConfirmedDonorCode("ROTH URS"));
+    }
+
+    @Test
+    public void test_invalid_alias_file_is_treated_like_missing_one() throws IOException {
+        // given
+        File aliasFile = this.tempDir.resolve("aliases.log").toFile();
+        Files.write(aliasFile.toPath(), new byte[]{1, 2, 3});
+
+        // when
+        AliasStore aliasStore = AliasStore.load(aliasFile);
+        aliasStore.record("MEIER ANNA", "D000001", true);
+
+        // then
+        assertEquals(1, aliasStore.size());
+        AliasStore reloadedAliasStore = AliasStore.load(aliasFile);
+        assertEquals(1, reloadedAliasStore.size());
+        assertEquals(Optional.of("D000001"), reloadedAliasStore.findConfirmedDonorCode("MEIER ANNA"));
+    }
+
+    @Test
+    public void test_keep_decisions_before_invalid_one() throws IOException {
+        // given
+        File aliasFile = this.tempDir.resolve("aliases.log").toFile();
+
+        AliasStore aliasStore = AliasStore.load(aliasFile);
+        aliasStore.record("MEIER ANNA", "D000001", true);
+        aliasStore.record("HUBER B.", "D000003", true);
+        // A decision whose name is not valid modified UTF-8
+        Files.write(aliasFile.toPath(), new byte[]{1, 0, 2, (byte) 0xFF, (byte) 0xFF}, StandardOpenOption.APPEND);
+
+        // when
+        AliasStore loadedAliasStore = AliasStore.load(aliasFile);
+        loadedAliasStore.record("ROTH URS", "D000004", true);
+
+        // then
+        assertEquals(3, loadedAliasStore.size());
+        AliasStore reloadedAliasStore = AliasStore.load(aliasFile);
+        assertEquals(3, reloadedAliasStore.size());
+        assertEquals(Optional.of("D000003"), reloadedAliasStore.findConfirmedDonorCode("HUBER B."));
+        assertEquals(Optional.of("D000004"), reloadedAliasStore.findConfirmedDonorCode("ROTH URS"));
+    }
+}
@@ -0,0 +1,102 @@
+package donationmanager;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AmountScannerTests {
+    @Test
+    public void test_find_amount_in_text() {
+        // given
+        AmountScanner amountScanner = new AmountScanner();
+        String text = "Anna Meier 1'250.50 Spende";
+
+        // when
+        boolean found = amountScanner.find(text);
+
+        // then
+        assertTrue(found);
+        assertEquals(125050, amountScanner.getCents());
+        assertEquals(" 1'250.50 ", text.substring(amountScanner.getStart(), amountScanner.getEnd()));
+    }
+
+    @Test
+    public void test_find_no_amount_in_text() {
+        // given
+        AmountScanner amountScanner = new AmountScanner();
+
+        // when then
+        assertFalse(amountScanner.find("Patenschaft Kenia"));
+        assertFalse(amountScanner.find("Rechnung 12.5"));
+        assertFalse(amountScanner.find("Rechnung 12.500"));
+        assertFalse(amountScanner.find("Rechnung Nr.12.50"));
+        assertFalse(amountScanner.find(""));
+    }
+
+    @Test
+    public void test_find_same_amounts_as_pattern() {
+        // given
+        AmountScanner amountScanner = new AmountScanner();
+        Pattern pattern = Pattern.compile("(^|\\s)(\\d|')+\\.\\d\\d($|\\s)");
+        List<String> texts = List.of("20.00",
+                                     " 20.00",
+                                     "20.00 Anna Meier",
+                                     "Anna Meier 20.00",
+                                     "Anna Meier 20.00\n",
+                                     "Anna Meier\t'20.00\r\n",
+                                     "Rechnung 12.5 Anna Meier 1'000.00",
+                                     "Anna 1.00.00 Meier 3.00",
+                                     "A.20.00",
+                                     "'.50");
+
+        for (String text : texts) {
+            // when
+            Matcher matcher = pattern.matcher(text);
+            boolean foundExpected = matcher.find();
+            boolean found = amountScanner.find(text);
+
+            // then
+            assertEquals(foundExpected, found, text);
+            if (foundExpected) {
+                assertEquals(matcher.start(), amountScanner.getStart(), text);
+                assertEquals(matcher.end(), amountScanner.getEnd(), text);
+            }
+        }
+    }
+
+    @Test
+    public void test_parse_amount_fields() {
+        // when then
+        assertEquals(100000, AmountScanner.parseCents("1'000.00"));
+        assertEquals(1250, AmountScanner.parseCents(" 12.5 "));
+        assertEquals(1200, AmountScanner.parseCents("12"));
+        assertEquals(-50, AmountScanner.parseCents("-.50"));
+    }
+
+    @Test
+    public void test_parse_invalid_amount_fields() {
+        // when then
+        assertThrows(NumberFormatException.class, () -> AmountScanner.parseCents(""));
+        assertThrows(NumberFormatException.class, () -> AmountScanner.parseCents("abc"));
+        assertThrows(NumberFormatException.class, () -> AmountScanner.parseCents("12.345"));
+        assertThrows(NumberFormatException.class, () -> AmountScanner.parseCents("1.2.3"));
+        assertThrows(NumberFormatException.class, () -> AmountScanner.parseCents("99999999999999999999.00"));
+    }
+
+    @Test
+    public void test_remove_digit_group_separators() {
+        // given
+        String amount = "1'000'000.00";
+
+        // when
+        String result = AmountScanner.removeDigitGroupSeparators(amount);
+
+        // then
+        assertEquals("1000000.00", result);
+        assertSame(result, AmountScanner.removeDigitGroupSeparators(result));
+    }
+}
@@ -1,11 +1,22 @@
 package donationmanager;
 
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import technology.tabula.RectangularTextContainer;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -32,6 +43,172 @@ public class BankStatementReaderTests {
         assertEquals(lastRowExpected, table.get(tableSizeExpected - 1).get(1).getText());
     }
 
+    @Test
+    public void test_parallel_extraction_matches_sequential_extraction(@TempDir Path tempDir) throws IOException {
+        // given
+        File bankStatement = tempDir.resolve("bank-statement.pdf").toFile();
+        // 10 pages can't be split evenly between 3 workers
+        int tableSizeExpected = new SyntheticDataGenerator().writeStatement(bankStatement, 10).size();
+        BankStatementReader sequentialReader = new BankStatementReader(bankStatement);
+        BankStatementReader parallelReader = new BankStatementReader(bankStatement);
+        parallelReader.setParallelism(3);
+
+        // when
+        List<List<RectangularTextContainer>> sequentialTable = sequentialReader.extractTable();
+        List<List<RectangularTextContainer>> parallelTable = parallelReader.extractTable();
+
+        // then
+        assertEquals(tableSizeExpected, sequentialTable.size());
+        assertEquals(sequentialTable.size(), parallelTable.size());
+        for (int i = 0; i < sequentialTable.size(); i++) {
+            List<RectangularTextContainer> sequentialRow = sequentialTable.get(i);
+            List<RectangularTextContainer> parallelRow = parallelTable.get(i);
+
+            assertEquals(sequentialRow.size(), parallelRow.size());
+            for (int j = 0; j < sequentialRow.size(); j++) {
+                assertEquals(sequentialRow.get(j).getText(), parallelRow.get(j).getText());
+            }
+        }
+    }
+
+    @Test
+    public void test_stream_rows_of_bank_statement(@TempDir Path tempDir) throws IOException {
+        // given
+        File bankStatement = tempDir.resolve("bank-statement.pdf").toFile();
+        File nextBankStatement = tempDir.resolve("next-bank-statement.pdf").toFile();
+        SyntheticDataGenerator generator = new SyntheticDataGenerator();
+        List<String[]> tableExpected = generator.writeStatement(bankStatement, 3);
+        generator.setSeed(2);
+        generator.writeStatement(nextBankStatement, 2);
+
+        // Pages with more entries follow the page with the "Saldo per..." trailer
+        try (PDDocument document = PDDocument.load(bankStatement);
+             PDDocument nextDocument = PDDocument.load(nextBankStatement)) {
+            for (PDPage page : nextDocument.getPages()) {
+                document.importPage(page);
+            }
+            document.save(bankStatement);
+        }
+        BankStatementReader bankStatementReader = new BankStatementReader(bankStatement);
+
+        // when
+        List<List<RectangularTextContainer>> rows;
+        try (Stream<List<RectangularTextContainer>> rowStream = bankStatementReader.streamRows()) {
+            rows = rowStream.collect(Collectors.toList());
+        }
+
+        // then
+        assertEquals(tableExpected.size(), rows.size());
+        assertEquals(tableExpected.get(0)[0], rows.get(0).get(0).getText());
+        String[] lastRowExpected = tableExpected.get(tableExpected.size() - 1);
+        assertEquals(lastRowExpected[1], rows.get(rows.size() - 1).get(1).getText());
+    }
+
+    @Test
+    public void test_read_transactions_while_pages_are_extracted(@TempDir Path tempDir) throws IOException {
+        // given
+        File bankStatement = tempDir.resolve("bank-statement.pdf").toFile();
+        SyntheticDataGenerator generator = new SyntheticDataGenerator();
+        generator.setGroupedEntryRate(0.5);
+        generator.writeStatement(bankStatement, 10);
+        TableCache tableCache = new TableCache(tempDir.resolve("cache").toFile(), 1024 * 1024);
+
+        List<Transaction> expectedTransactions = new TransactionManager(new BankStatementReader(bankStatement)
+                                                                                .extractTable())
+                .makeTransactionList();
+
+        for (int parallelism : new int[]{1, 3}) {
+            // The first reader extracts the pages and stores the table, the second one reads it from the cache
+            for (int run = 0; run < 2; run++) {
+                BankStatementReader bankStatementReader = new BankStatementReader(bankStatement);
+                bankStatementReader.setParallelism(parallelism);
+                bankStatementReader.setTableCache(tableCache);
+
+                // when
+                List<Transaction> transactions = bankStatementReader.readTransactions().toList();
+
+                // then
+                assertEquals(expectedTransactions.size(), transactions.size());
+                for (int i = 0; i < transactions.size(); i++) {
+                    assertEquals(expectedTransactions.get(i).getName(), transactions.get(i).getName());
+                    assertEquals(expectedTransactions.get(i).getAmount(), transactions.get(i).getAmount());
+                    assertEquals(expectedTransactions.get(i).getMiscText(), transactions.get(i).getMiscText());
+                }
+            }
+            tableCache = new TableCache(tempDir.resolve("cache-" + parallelism).toFile(), 1024 * 1024);
+        }
+    }
+
+    @Test
+    public void test_memory_bounded_extraction_of_large_bank_statement(@TempDir Path tempDir) throws Exception {
+        // given
+        File bankStatement = tempDir.resolve("large-bank-statement.pdf").toFile();
+        int tableSizeExpected = new SyntheticDataGenerator().writeStatement(bankStatement, 500).size();
+
+        // when
+        String boundedOutput = runMemoryBoundedExtraction(bankStatement, tempDir.resolve("bounded"), 64 * 1024);
+        String unboundedOutput = runMemoryBoundedExtraction(bankStatement, tempDir.resolve("unbounded"), -1);
+
+        // then
+        assertTrue(boundedOutput.contains("Rows: " + tableSizeExpected), boundedOutput);
+        assertFalse(boundedOutput.contains("Scratch files: 0"), boundedOutput);
+        assertTrue(unboundedOutput.contains("Rows: " + tableSizeExpected), unboundedOutput);
+        assertTrue(unboundedOutput.contains("Scratch files: 0"), unboundedOutput);
+    }
+
+    @Test
+    public void test_extract_table_from_synthetic_bank_statement(@TempDir Path tempDir) throws IOException {
+        // given
+        File bankStatement = tempDir.resolve("bank-statement.pdf").toFile();
+        SyntheticDataGenerator generator = new SyntheticDataGenerator();
+        generator.setGroupedEntryRate(0.5);
+        generator.setDebitRate(0.3);
+        List<String[]> tableExpected = generator.writeStatement(bankStatement, 3);
+
+        BankStatementReader bankStatementReader = new BankStatementReader(bankStatement);
+
+        // when
+        List<List<RectangularTextContainer>> table = bankStatementReader.extractTable();
+
+        // then
+        assertEquals(tableExpected.size(), table.size());
+        for (int i = 0; i < table.size(); i++) {
+            List<RectangularTextContainer> row = table.get(i);
+            for (int j = 0; j < tableExpected.get(i).length; j++) {
+                String cellExpected = tableExpected.get(i)[j];
+                assertEquals(cellExpected, j < row.size() ? row.get(j).getText() : "", "Row " + i);
+            }
+        }
+    }
+
+    @Test
+    public void test_text_layer_extraction_matches_tabula_extraction(@TempDir Path tempDir) throws IOException {
+        // given
+        File bankStatement = tempDir.resolve("bank-statement.pdf").toFile();
+        int tableSizeExpected = new SyntheticDataGenerator().writeStatement(bankStatement, 20).size();
+
+        BankStatementReader tabulaReader = new BankStatementReader(bankStatement);
+        BankStatementReader textLayerReader = new BankStatementReader(bankStatement);
+        textLayerReader.setEngine(ExtractionEngine.TEXT_LAYER);
+
+        // when
+        List<List<RectangularTextContainer>> tabulaTable = tabulaReader.extractTable();
+        List<List<RectangularTextContainer>> textLayerTable = textLayerReader.extractTable();
+
+        // then
+        assertEquals(tableSizeExpected, tabulaTable.size());
+        assertEquals(tabulaTable.size(), textLayerTable.size());
+        for (int i = 0; i < tabulaTable.size(); i++) {
+            List<RectangularTextContainer> tabulaRow = tabulaTable.get(i);
+            List<RectangularTextContainer> textLayerRow = textLayerTable.get(i);
+
+            assertEquals(tabulaRow.size(), textLayerRow.size());
+            for (int j = 0; j < tabulaRow.size(); j++) {
+                assertEquals(tabulaRow.get(j).getText(), textLayerRow.get(j).getText());
+            }
+        }
+    }
+
     @Test
     public void test_wrong_bank_statement_file_format() {
         // given
@@ -76,4 +253,91 @@ public class BankStatementReaderTests {
         assertTrue(exception.getMessage().contains(messageExpected));
     }
 
+    @Test
+    public void test_unrecognized_bank_statement(@TempDir Path tempDir) throws IOException {
+        // given
+        File file = tempDir.resolve("blank.pdf").toFile();
+        try (PDDocument document = new PDDocument()) {
+            document.addPage(new PDPage());
+            document.save(file);
+        }
+        BankStatementReader bankStatementReader = new BankStatementReader(file);
+
+        // when then
+        Exception exception = assertThrows(IllegalArgumentException.class, bankStatementReader::extractTable);
+
+        String messageExpected = "The selected file is not a valid bank statement";
+
+        assertEquals(messageExpected, exception.getMessage());
+    }
+
+
+    @Test
+    public void test_statement_that_only_mentions_bank_is_not_recognized(@TempDir Path tempDir) throws IOException {
+        // given
+        File file = tempDir.resolve("transfer.pdf").toFile();
+        try (PDDocument document = new PDDocument()) {
+            PDPage page = new PDPage();
+            document.addPage(page);
+            try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+                content.beginText();
+                content.setFont(PDType1Font.HELVETICA, 12);
+                content.newLineAtOffset(70, 700);
+                content.showText("Transfer to AEK BANK 1826");
+                content.endText();
+            }
+            document.save(file);
+        }
+
+        for (ExtractionEngine engine : ExtractionEngine.values()) {
+            BankStatementReader bankStatementReader = new BankStatementReader(file);
+            bankStatementReader.setEngine(engine);
+
+            // when then
+            Exception exception = assertThrows(IllegalArgumentException.class, bankStatementReader::extractTable);
+            assertEquals("The selected file is not a valid bank statement", exception.getMessage());
+            assertThrows(IllegalArgumentException.class, bankStatementReader::streamRows);
+        }
+    }
+
+    private static String runMemoryBoundedExtraction(File bankStatement, Path scratchDirectory,
+                                                     long maxMainMemoryBytes) throws Exception {
+        Files.createDirectories(scratchDirectory);
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        ProcessBuilder processBuilder = new ProcessBuilder(java,
+                                                           "-Xmx32m",
+                                                           "-Djava.io.tmpdir=" + scratchDirectory,
+                                                           "-cp",
+                                                           System.getProperty("java.class.path"),
+                                                           MemoryBoundedExtraction.class.getName(),
+                                                           bankStatement.getPath(),
+                                                           String.valueOf(maxMainMemoryBytes));
+        processBuilder.redirectErrorStream(true);
+
+        Process process = processBuilder.start();
+        String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        assertEquals(0, process.waitFor(), output);
+        return output;
+    }
+
+    /**
+     * Streams a bank statement with the given main memory limit and reports how many PDFBox scratch files were
+     * created in the temporary directory, i.e. whether the document spilled over to disk. Run in its own JVM with a
+     * capped heap, so that running out of memory fails the test instead of going unnoticed.
+     */
+    public static class MemoryBoundedExtraction {
+        public static void main(String[] args) throws IOException {
+            BankStatementReader bankStatementReader = new BankStatementReader(new File(args[0]));
+            bankStatementReader.setMaxMainMemoryBytes(Long.parseLong(args[1]));
+
+            try (Stream<List<RectangularTextContainer>> rows = bankStatementReader.streamRows()) {
+                System.out.println("Rows: " + rows.count());
+
+                // Scratch files are deleted once the document is closed, so they're counted while it is still open
+                File[] scratchFiles = new File(System.getProperty("java.io.tmpdir"))
+                        .listFiles((directory, name) -> name.startsWith("PDFBox") && name.endsWith(".tmp"));
+                System.out.println("Scratch files: " + (scratchFiles == null ? 0 : scratchFiles.length));
+            }
+        }
+    }
 }
@@ -0,0 +1,80 @@
+package donationmanager;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BatchProcessorTests {
+    @Test
+    public void test_batch_skips_unreadable_bank_statements(@TempDir Path tempDir) throws Exception {
+        // given
+        SyntheticDataGenerator generator = new SyntheticDataGenerator();
+        generator.writeStatement(tempDir.resolve("april.pdf").toFile(), 2);
+        generator.writeStatement(tempDir.resolve("may.pdf").toFile(), 2);
+        Files.copy(Path.of("test-files/test.png"), tempDir.resolve("broken.pdf"));
+        Files.writeString(tempDir.resolve("notes.txt"), "not a bank statement");
+
+        List<File> bankStatements = BatchProcessor.findBankStatements(List.of(tempDir.toFile()));
+        BatchProcessor batchProcessor = new BatchProcessor(bankStatements, 2);
+
+        // when
+        TransactionBatch transactions = batchProcessor.readTransactions();
+
+        // then
+        final int transactionsPerStatementExpected = readSingleStatement(tempDir.resolve("april.pdf").toFile());
+
+        assertEquals(3, bankStatements.size());
+        assertEquals(2 * transactionsPerStatementExpected, transactions.size());
+        assertEquals(1, batchProcessor.getFailures().size());
+        assertTrue(batchProcessor.getFailures().get(tempDir.resolve("broken.pdf").toFile()) instanceof IOException);
+    }
+
+    @Test
+    public void test_leave_out_transactions_of_overlapping_statements_in_one_batch(@TempDir Path tempDir)
+            throws Exception {
+        // given
+        SyntheticDataGenerator generator = new SyntheticDataGenerator();
+        // Both statements start with the same entries, the May statement just goes on for longer
+        generator.writeStatement(tempDir.resolve("april.pdf").toFile(), 2);
+        generator.writeStatement(tempDir.resolve("may.pdf").toFile(), 3);
+
+        List<File> bankStatements = BatchProcessor.findBankStatements(List.of(tempDir.toFile()));
+        BatchProcessor batchProcessor = new BatchProcessor(bankStatements, 2);
+        batchProcessor.setDuplicateDetector(new DuplicateDetector(tempDir.resolve("transactions.index").toFile()));
+
+        // when
+        TransactionBatch transactions = batchProcessor.readTransactions();
+
+        // then
+        final int aprilTransactionsExpected = readSingleStatement(tempDir.resolve("april.pdf").toFile());
+        final int mayTransactionsExpected = readSingleStatement(tempDir.resolve("may.pdf").toFile());
+
+        assertEquals(mayTransactionsExpected, transactions.size());
+        assertEquals(aprilTransactionsExpected, batchProcessor.getDuplicates());
+    }
+
+    @Test
+    public void test_inexistent_batch_path() {
+        // given
+        List<File> paths = List.of(new File("IDontExist"));
+
+        // when then
+        Exception exception = assertThrows(IllegalArgumentException.class,
+                                           () -> BatchProcessor.findBankStatements(paths));
+
+        assertEquals("The path IDontExist does not exist", exception.getMessage());
+    }
+
+    private int readSingleStatement(File bankStatement) throws IOException {
+        TransactionManager transactionManager = new TransactionManager(new BankStatementReader(bankStatement)
+                                                                               .extractTable());
+        return transactionManager.makeTransactionList().size();
+    }
+}
@@ -0,0 +1,34 @@
+package donationmanager;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ContentHashTests {
+    @Test
+    public void test_hash_depends_only_on_content_and_text(@TempDir Path tempDir) throws IOException {
+        // given
+        File file = tempDir.resolve("all-donors.xlsx").toFile();
+        File copy = tempDir.resolve("copy.xlsx").toFile();
+        File changedFile = tempDir.resolve("changed.xlsx").toFile();
+        Files.writeString(file.toPath(), "Anna Meier");
+        Files.writeString(copy.toPath(), "Anna Meier");
+        Files.writeString(changedFile.toPath(), "Anna Meyer");
+
+        // when
+        String hash = ContentHash.of(file);
+
+        // then
+        assertEquals(64, hash.length());
+        assertEquals(hash, ContentHash.of(copy));
+        assertEquals(hash, ContentHash.of(file, ""));
+        assertNotEquals(hash, ContentHash.of(changedFile));
+        assertNotEquals(hash, ContentHash.of(file, "TABULA"));
+    }
+}
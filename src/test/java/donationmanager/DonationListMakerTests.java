@@ -4,11 +4,15 @@ import org.apache.poi.xssf.usermodel.XSSFRow;
 import org.apache.poi.xssf.usermodel.XSSFSheet;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import javax.swing.*;
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -27,27 +31,27 @@ public class DonationListMakerTests {
         File outputFile = new File("test-files/output-test.xlsx");
 
         String transaction1Name = "Gilbert und Liselotte Aebischer-Pfander";
-        String transaction1Amount = "10";
+        Money transaction1Amount = Money.parse("10");
         TransactionType transaction1Type = TransactionType.CREDIT;
-        String transaction1Date = "";
+        LocalDate transaction1Date = null;
         List<String> transaction1Text = new ArrayList<>();
 
         String transaction2Name = "Belastung";
-        String transaction2Amount = "10000";
+        Money transaction2Amount = Money.parse("10000");
         TransactionType transaction2Type = TransactionType.DEBIT;
-        String transaction2Date = "";
+        LocalDate transaction2Date = null;
         List<String> transaction2Text = new ArrayList<>();
 
         String transaction3Name = "This name is not present in the list of all donors";
-        String transaction3Amount = "10'000.50";
+        Money transaction3Amount = Money.parse("10'000.50");
         TransactionType transaction3Type = TransactionType.CREDIT;
-        String transaction3Date = "";
+        LocalDate transaction3Date = null;
         List<String> transaction3Text = new ArrayList<>();
 
         String transaction4Name = "Affentranger-Imbach Elisabeth";
-        String transaction4Amount = "1000";
+        Money transaction4Amount = Money.parse("1000");
         TransactionType transaction4Type = TransactionType.CREDIT;
-        String transaction4Date = "";
+        LocalDate transaction4Date = null;
         List<String> transaction4Text = new ArrayList<>();
 
         List<Transaction> transactions = List.of(new Transaction(transaction1Name,
@@ -94,16 +98,234 @@ public class DonationListMakerTests {
         XSSFRow row4 = outputSheet.getRow(4);
 
         assertEquals(transaction1Name, row1.getCell(3).getStringCellValue());
-        assertEquals(transaction1Amount, row1.getCell(6).getStringCellValue());
+        assertEquals(transaction1Amount.toDouble(), row1.getCell(6).getNumericCellValue());
 
         assertEquals(transaction2Name, row2.getCell(3).getStringCellValue());
-        assertEquals(transaction2Amount, row2.getCell(7).getStringCellValue());
+        assertEquals(transaction2Amount.toDouble(), row2.getCell(7).getNumericCellValue());
 
         // Should be empty because the name is not present in the list of all donors
         assertNull(row3);
 
         assertEquals(transaction4Name, row4.getCell(3).getStringCellValue());
-        assertEquals(transaction4Amount, row4.getCell(6).getStringCellValue());
+        assertEquals(transaction4Amount.toDouble(), row4.getCell(6).getNumericCellValue());
+    }
+
+    @Test
+    public void test_output_donation_list_of_synthetic_donors(@TempDir Path tempDir)
+            throws IOException {
+        // given
+        File allDonorsFile = tempDir.resolve("all-donors.xlsx").toFile();
+        File outputFile = tempDir.resolve("output.xlsx").toFile();
+
+        SyntheticDataGenerator generator = new SyntheticDataGenerator();
+        generator.setDonors(500);
+        List<String> donorNames = generator.writeDonorWorkbook(allDonorsFile);
+
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            String name = donorNames.get(i * 37);
+            Money amount = Money.parse("20.00");
+            LocalDate date = LocalDate.of(2023, 4, 3);
+            transactions.add(new Transaction(name, amount, TransactionType.CREDIT, date, List.of()));
+        }
+
+        DonationListMaker donationListMaker = new DonationListMaker(allDonorsFile,
+                                                                    transactions,
+                                                                    outputFile,
+                                                                    dialogueBox);
+
+        // when
+        donationListMaker.makeDonationList();
+
+        // then
+        XSSFSheet outputSheet = new XSSFWorkbook(new FileInputStream(outputFile)).getSheetAt(0);
+
+        assertEquals("Code /", outputSheet.getRow(0).getCell(0).getStringCellValue());
+        for (int i = 0; i < transactions.size(); i++) {
+            XSSFRow row = outputSheet.getRow(i + 1);
+            assertEquals(transactions.get(i).getName(), row.getCell(3).getStringCellValue());
+            assertEquals(20.0, row.getCell(6).getNumericCellValue());
+        }
+    }
+
+    @Test
+    public void test_stream_output_through_small_row_window(@TempDir Path tempDir)
+            throws IOException {
+        // given
+        File allDonorsFile = tempDir.resolve("all-donors.xlsx").toFile();
+        File outputFile = tempDir.resolve("output.xlsx").toFile();
+
+        SyntheticDataGenerator generator = new SyntheticDataGenerator();
+        generator.setDonors(200);
+        List<String> donorNames = generator.writeDonorWorkbook(allDonorsFile);
+
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            TransactionType transactionType = (i % 5 == 0) ? TransactionType.DEBIT : TransactionType.CREDIT;
+            Money amount = Money.ofCents(100 + i);
+            transactions.add(new Transaction(donorNames.get(i), amount, transactionType, null, List.of()));
+        }
+
+        DonationListMaker donationListMaker = new DonationListMaker(allDonorsFile,
+                                                                    transactions,
+                                                                    outputFile,
+                                                                    dialogueBox);
+        donationListMaker.setRowAccessWindowSize(2);
+
+        // when
+        donationListMaker.makeDonationList();
+
+        // then
+        XSSFSheet outputSheet = new XSSFWorkbook(new FileInputStream(outputFile)).getSheetAt(0);
+
+        assertEquals("Code /", outputSheet.getRow(0).getCell(0).getStringCellValue());
+        for (int i = 0; i < transactions.size(); i++) {
+            XSSFRow row = outputSheet.getRow(i + 1);
+            int amountColumn = (transactions.get(i).getTransactionType() == TransactionType.DEBIT) ? 7 : 6;
+            assertEquals(transactions.get(i).getName(), row.getCell(3).getStringCellValue());
+            assertEquals(transactions.get(i).getAmount().toDouble(), row.getCell(amountColumn).getNumericCellValue());
+        }
+        // Only the output file is left next to the list of all donors, without any temporary file
+        assertEquals(2, tempDir.toFile().list().length);
+    }
+
+    @Test
+    public void test_use_donors_loaded_beforehand(@TempDir Path tempDir) throws IOException {
+        // given
+        File allDonorsFile = tempDir.resolve("all-donors.xlsx").toFile();
+        File invalidDonorsFile = tempDir.resolve("invalid-donors.xlsx").toFile();
+        File outputFile = tempDir.resolve("output.xlsx").toFile();
+        DonorSnapshot donorSnapshot = new DonorSnapshot(tempDir.resolve("donors").toFile());
+
+        SyntheticDataGenerator generator = new SyntheticDataGenerator();
+        generator.setDonors(100);
+        List<String> donorNames = generator.writeDonorWorkbook(allDonorsFile);
+        try (XSSFWorkbook workbook = new XSSFWorkbook();
+             FileOutputStream output = new FileOutputStream(invalidDonorsFile)) {
+            workbook.createSheet().createRow(0).createCell(0).setCellValue("Name");
+            workbook.write(output);
+        }
+
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            transactions.add(new Transaction(donorNames.get(i * 3), Money.ofCents(100 + i), TransactionType.CREDIT,
+                                             null, List.of()));
+        }
+
+        // when
+        donorSnapshot.load(allDonorsFile);
+        DonorIndex donorIndex = DonationListMaker.loadDonors(allDonorsFile, donorSnapshot);
+        new DonationListMaker(donorIndex, TransactionBatch.of(transactions), outputFile, dialogueBox)
+                .makeDonationList();
+
+        // then
+        XSSFSheet outputSheet = new XSSFWorkbook(new FileInputStream(outputFile)).getSheetAt(0);
+        assertEquals("Code /", outputSheet.getRow(0).getCell(0).getStringCellValue());
+        for (int i = 0; i < transactions.size(); i++) {
+            assertEquals(String.format("D%06d", i * 3), outputSheet.getRow(i + 1).getCell(0).getStringCellValue());
+        }
+
+        Exception exception = assertThrows(IllegalArgumentException.class,
+                                           () -> DonationListMaker.loadDonors(invalidDonorsFile, donorSnapshot));
+        assertEquals("The Excel file with all known donors is not valid", exception.getMessage());
+    }
+
+    @Test
+    public void test_confirm_matches_in_order_of_transactions(@TempDir Path tempDir)
+            throws IOException {
+        // given
+        File allDonorsFile = tempDir.resolve("all-donors.xlsx").toFile();
+
+        SyntheticDataGenerator generator = new SyntheticDataGenerator();
+        generator.setDonors(500);
+        generator.setNameNoise(1);
+        generator.writeDonorWorkbook(allDonorsFile);
+        List<Transaction> transactions = generator.makeCreditTransactions(40);
+
+        List<List<String>> comparedNames = new ArrayList<>();
+        for (int parallelism : new int[]{1, 4}) {
+            List<String> names = new ArrayList<>();
+            DialogueBox dialogueBox = new DialogueBox() {
+                @Override
+                public int showNameComparisonDialogue(String firstName, String secondName) {
+                    names.add(firstName + " = " + secondName);
+                    return JOptionPane.NO_OPTION;
+                }
+            };
+            DonationListMaker donationListMaker = new DonationListMaker(allDonorsFile,
+                                                                        transactions,
+                                                                        tempDir.resolve("output.xlsx").toFile(),
+                                                                        dialogueBox);
+            donationListMaker.setParallelism(parallelism);
+
+            // when
+            donationListMaker.makeDonationList();
+            comparedNames.add(names);
+        }
+
+        // then
+        assertFalse(comparedNames.get(0).isEmpty());
+        assertEquals(comparedNames.get(0), comparedNames.get(1));
+    }
+
+    @Test
+    public void test_remember_decisions_of_user(@TempDir Path tempDir) throws IOException {
+        // given
+        File allDonorsFile = tempDir.resolve("all-donors.xlsx").toFile();
+        File outputFile = tempDir.resolve("output.xlsx").toFile();
+        File aliasFile = tempDir.resolve("aliases.log").toFile();
+
+        List<Transaction> transactions = List.of(
+                new Transaction("Meyer Anita", Money.parse("50.00"), TransactionType.CREDIT, null, List.of()),
+                new Transaction("Beatrix Hube", Money.parse("20.00"), TransactionType.CREDIT, null, List.of()));
+
+        writeDonorWorkbook(allDonorsFile, new String[]{"D1", "Anna Meier"}, new String[]{"D2", "Beat Huber"});
+        List<String> firstComparedNames = new ArrayList<>();
+        DialogueBox firstDialogueBox = new DialogueBox() {
+            @Override
+            public int showNameComparisonDialogue(String firstName, String secondName) {
+                firstComparedNames.add(firstName);
+                return firstName.startsWith("Meyer") ? JOptionPane.YES_OPTION : JOptionPane.NO_OPTION;
+            }
+        };
+        DonationListMaker firstDonationListMaker = new DonationListMaker(allDonorsFile,
+                                                                         transactions,
+                                                                         outputFile,
+                                                                         firstDialogueBox);
+        firstDonationListMaker.setAliasStore(AliasStore.load(aliasFile));
+        firstDonationListMaker.makeDonationList();
+
+        // The rows of the donors have moved since
+        writeDonorWorkbook(allDonorsFile,
+                           new String[]{"D3", "Urs Roth"},
+                           new String[]{"D2", "Beat Huber"},
+                           new String[]{"D1", "Anna Meier"});
+        List<String> secondComparedNames = new ArrayList<>();
+        DialogueBox secondDialogueBox = new DialogueBox() {
+            @Override
+            public int showNameComparisonDialogue(String firstName, String secondName) {
+                secondComparedNames.add(firstName);
+                return JOptionPane.NO_OPTION;
+            }
+        };
+        DonationListMaker secondDonationListMaker = new DonationListMaker(allDonorsFile,
+                                                                          transactions,
+                                                                          outputFile,
+                                                                          secondDialogueBox);
+        secondDonationListMaker.setAliasStore(AliasStore.load(aliasFile));
+
+        // when
+        secondDonationListMaker.makeDonationList();
+
+        // then
+        assertEquals(List.of("Meyer Anita", "Beatrix Hube"), firstComparedNames);
+        assertEquals(List.of(), secondComparedNames);
+
+        XSSFSheet outputSheet = new XSSFWorkbook(new FileInputStream(outputFile)).getSheetAt(0);
+        assertEquals("Anna Meier", outputSheet.getRow(1).getCell(3).getStringCellValue());
+        assertEquals("D1", outputSheet.getRow(1).getCell(0).getStringCellValue());
+        assertEquals(50.0, outputSheet.getRow(1).getCell(6).getNumericCellValue());
+        assertNull(outputSheet.getRow(2));
     }
 
     @Test
@@ -156,5 +378,41 @@ public class DonationListMakerTests {
         assertEquals("The output file does not have the correct file format (must be an Excel file)",
                      exception.getMessage());
     }
+
+    @Test
+    void test_check_output_file_format_before_loading_donors() {
+        // given
+        File outputFile = new File("test-files/output-test.txt");
+
+        // when then
+        Exception exception = assertThrows(IllegalArgumentException.class,
+                                           () -> DonationListMaker.checkOutputFile(outputFile));
+        assertEquals("The output file does not have the correct file format (must be an Excel file)",
+                     exception.getMessage());
+        assertDoesNotThrow(() -> DonationListMaker.checkOutputFile(new File("test-files/output-test.xlsx")));
+    }
+
+    /**
+     * Writes a list of all known donors with the given codes and names, followed by an empty last row, which is never
+     * matched.
+     */
+    private void writeDonorWorkbook(File file, String[]... donors) throws IOException {
+        try (XSSFWorkbook workbook = new XSSFWorkbook(); FileOutputStream output = new FileOutputStream(file)) {
+            XSSFSheet sheet = workbook.createSheet();
+            XSSFRow header = sheet.createRow(0);
+            header.createCell(0).setCellValue("Code /");
+            header.createCell(3).setCellValue("Name");
+            header.createCell(6).setCellValue("Amount");
+
+            for (int i = 0; i < donors.length; i++) {
+                XSSFRow row = sheet.createRow(i + 1);
+                row.createCell(0).setCellValue(donors[i][0]);
+                row.createCell(3).setCellValue(donors[i][1]);
+                row.createCell(6).setCellValue(10.0);
+            }
+            sheet.createRow(donors.length + 1);
+            workbook.write(output);
+        }
+    }
 }
 
@@ -0,0 +1,243 @@
+package donationmanager;
+
+import me.xdrop.fuzzywuzzy.FuzzySearch;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DonorIndexTests {
+    @Test
+    public void test_find_exact_matches() throws IOException {
+        try (Workbook workbook = new XSSFWorkbook()) {
+            // given
+            Sheet sheet = workbook.createSheet();
+            addRow(sheet, 0, "Name", null);
+            addRow(sheet, 1, " Anna Meier ", 20.0);
+            addRow(sheet, 2, "Beat Huber", 50.0);
+            addRow(sheet, 3, "Anna Meier", 30.1);
+            addRow(sheet, 4, "Urs Roth", null);
+
+            // when
+            DonorIndex donorIndex = DonorIndex.of(sheet);
+
+            // then
+            assertEquals(List.of(1, 3), donorIndex.findExactMatches("Anna Meier  "));
+            assertEquals(List.of(2), donorIndex.findExactMatches("Beat Huber"));
+            assertEquals(List.of(), donorIndex.findExactMatches("anna meier"));
+            // The last row of the sheet is not covered, like it never was when matching names
+            assertEquals(List.of(), donorIndex.findExactMatches("Urs Roth"));
+            assertEquals(4, donorIndex.getEndRowNumber());
+            assertEquals("Anna Meier", donorIndex.getName(1));
+        }
+    }
+
+    @Test
+    public void test_read_amounts_as_cents() throws IOException {
+        try (Workbook workbook = new XSSFWorkbook()) {
+            // given
+            Sheet sheet = workbook.createSheet();
+            addRow(sheet, 0, "Name", null);
+            addRow(sheet, 1, "Anna Meier", 30.1);
+            addRow(sheet, 2, "Beat Huber", null);
+            addRow(sheet, 3, "Urs Roth", null).createCell(6).setCellValue("fifty");
+            sheet.createRow(4);
+            addRow(sheet, 5, "Last Row", null);
+
+            // when
+            DonorIndex donorIndex = DonorIndex.of(sheet);
+
+            // then
+            assertTrue(donorIndex.hasAmount(1, 3010));
+            assertFalse(donorIndex.hasAmount(1, 3000));
+            assertFalse(donorIndex.hasAmount(2, 0));
+            assertFalse(donorIndex.hasAmount(3, 0));
+            assertNull(donorIndex.getName(4));
+        }
+    }
+
+    @Test
+    public void test_find_rows_by_code() throws IOException {
+        try (Workbook workbook = new XSSFWorkbook()) {
+            // given
+            Sheet sheet = workbook.createSheet();
+            addRow(sheet, 0, "Name", null).createCell(0).setCellValue("Code /");
+            addRow(sheet, 1, "Anna Meier", null).createCell(0).setCellValue(" D000001 ");
+            addRow(sheet, 2, "Beat Huber", null).createCell(0).setCellValue(1234);
+            addRow(sheet, 3, "Anna Meier", null).createCell(0).setCellValue("D000001");
+            addRow(sheet, 4, "Urs Roth", null);
+            addRow(sheet, 5, "Last Row", null);
+
+            // when
+            DonorIndex donorIndex = DonorIndex.of(sheet);
+
+            // then
+            assertEquals(List.of(1, 3), donorIndex.findRowsByCode("D000001"));
+            assertEquals(List.of(2), donorIndex.findRowsByCode("1234"));
+            assertEquals(List.of(), donorIndex.findRowsByCode("Code /"));
+            assertEquals("1234", donorIndex.getCode(2));
+            assertNull(donorIndex.getCode(4));
+        }
+    }
+
+    @Test
+    public void test_find_all_fuzzy_candidates_reaching_minimum_score() throws IOException {
+        try (Workbook workbook = new XSSFWorkbook()) {
+            // given
+            final int donors = 1000;
+            SyntheticDataGenerator generator = new SyntheticDataGenerator();
+            generator.setDonors(donors);
+            generator.setNameNoise(1);
+
+            Sheet sheet = workbook.createSheet();
+            addRow(sheet, 0, "Name", null);
+            for (int i = 1; i <= donors; i++) {
+                addRow(sheet, i, generator.makeName(i - 1), null);
+            }
+            addRow(sheet, donors + 1, "Müller-Lüdenscheidt, Hans-Jörg", null);
+            addRow(sheet, donors + 2, "", null);
+            addRow(sheet, donors + 3, "Last Row", null);
+
+            List<String> names = new ArrayList<>();
+            for (Transaction transaction : generator.makeCreditTransactions(200)) {
+                names.add(transaction.getName());
+            }
+            names.addAll(List.of("Hans Jörg Mueller Luedenscheidt", "M. Huber", "", "  ", "-", "x"));
+
+            // when
+            DonorIndex donorIndex = DonorIndex.of(sheet);
+
+            // then
+            for (String name : names) {
+                int[] scores = new int[donorIndex.getEndRowNumber()];
+                for (int i = 1; i < donorIndex.getEndRowNumber(); i++) {
+                    scores[i] = FuzzySearch.tokenSortRatio(name, donorIndex.getName(i));
+                }
+
+                for (int minimumScore : new int[]{1, 50, 71, 90}) {
+                    List<Integer> expectedRows = new ArrayList<>();
+                    for (int i = 1; i < donorIndex.getEndRowNumber(); i++) {
+                        if (scores[i] >= minimumScore) {
+                            expectedRows.add(i);
+                        }
+                    }
+
+                    List<Integer> candidateRows = new ArrayList<>();
+                    for (int row : donorIndex.findFuzzyCandidates(name, minimumScore)) {
+                        candidateRows.add(row);
+                    }
+                    assertTrue(candidateRows.containsAll(expectedRows), name);
+                    assertEquals(candidateRows.stream().sorted().distinct().collect(Collectors.toList()),
+                                 candidateRows);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void test_take_over_names_of_unchanged_rows() throws IOException {
+        try (Workbook workbook = new XSSFWorkbook()) {
+            // given
+            Sheet sheet = workbook.createSheet();
+            addRow(sheet, 0, "Name", null);
+            addRow(sheet, 1, "Anna Meier", 20.0);
+            addRow(sheet, 2, "Beat Huber", 50.0);
+            addRow(sheet, 3, "Urs Roth", 30.0);
+            addRow(sheet, 4, "Last Row", null);
+            DonorIndex previousIndex = DonorIndex.of(sheet);
+
+            sheet.shiftRows(2, 4, 1);
+            addRow(sheet, 2, "Claudia Frei", 10.0);
+            sheet.getRow(4).getCell(6).setCellValue(35.0);
+
+            // when
+            DonorIndex donorIndex = DonorIndex.of(DonorTable.of(sheet), previousIndex);
+
+            // then
+            assertSame(previousIndex.getTokenSortedForm(1), donorIndex.getTokenSortedForm(1));
+            assertEquals("claudia frei", donorIndex.getTokenSortedForm(2));
+            // Unchanged rows are recognized wherever they are now
+            assertSame(previousIndex.getTokenSortedForm(2), donorIndex.getTokenSortedForm(3));
+            assertNotSame(previousIndex.getTokenSortedForm(3), donorIndex.getTokenSortedForm(4));
+            assertEquals("roth urs", donorIndex.getTokenSortedForm(4));
+            assertTrue(donorIndex.hasAmount(4, 3500));
+            assertEquals(List.of(2), donorIndex.findExactMatches("Claudia Frei"));
+            assertArrayEquals(new int[]{2}, donorIndex.findFuzzyCandidates("Claudia Frei", 90));
+        }
+    }
+
+    @Test
+    public void test_index_changed_rows_like_a_new_index() throws IOException {
+        try (Workbook workbook = new XSSFWorkbook()) {
+            // given
+            final int donors = 300;
+            SyntheticDataGenerator generator = new SyntheticDataGenerator();
+            generator.setDonors(donors);
+            generator.setNameNoise(1);
+
+            Sheet sheet = workbook.createSheet();
+            addRow(sheet, 0, "Name", null);
+            for (int i = 1; i <= donors; i++) {
+                addRow(sheet, i, generator.makeName(i - 1), 10.0);
+            }
+            addRow(sheet, donors + 1, "Last Row", null);
+            DonorIndex previousIndex = DonorIndex.of(sheet);
+
+            // Rows are removed, changed, added and swapped
+            sheet.removeRow(sheet.getRow(10));
+            sheet.getRow(20).getCell(3).setCellValue("Hans-Jörg Müller");
+            sheet.getRow(30).getCell(6).setCellValue(20.0);
+            addRow(sheet, 10, generator.makeName(donors + 1), null);
+            sheet.getRow(40).getCell(3).setCellValue(generator.makeName(49));
+            sheet.getRow(50).getCell(3).setCellValue(generator.makeName(39));
+            addRow(sheet, donors + 1, generator.makeName(donors + 2), null);
+            addRow(sheet, donors + 2, "Last Row", null);
+
+            List<String> names = new ArrayList<>();
+            for (Transaction transaction : generator.makeCreditTransactions(100)) {
+                names.add(transaction.getName());
+            }
+            names.addAll(List.of("Hans Jörg Mueller", generator.makeName(donors + 2)));
+
+            // when
+            DonorIndex donorIndex = DonorIndex.of(DonorTable.of(sheet), previousIndex);
+
+            // then
+            DonorIndex expectedDonorIndex = DonorIndex.of(sheet);
+            assertEquals(expectedDonorIndex.getEndRowNumber(), donorIndex.getEndRowNumber());
+            for (int i = 1; i < donorIndex.getEndRowNumber(); i++) {
+                assertEquals(expectedDonorIndex.getName(i), donorIndex.getName(i));
+                assertEquals(expectedDonorIndex.getTokenSortedForm(i), donorIndex.getTokenSortedForm(i));
+            }
+            for (String name : names) {
+                for (int minimumScore : new int[]{1, 71, 90}) {
+                    assertArrayEquals(expectedDonorIndex.findFuzzyCandidates(name, minimumScore),
+                                      donorIndex.findFuzzyCandidates(name, minimumScore),
+                                      name);
+                }
+            }
+            // Only the changed rows have been processed again
+            assertSame(previousIndex.getTokenSortedForm(1), donorIndex.getTokenSortedForm(1));
+            assertSame(previousIndex.getTokenSortedForm(50), donorIndex.getTokenSortedForm(40));
+            assertNotSame(previousIndex.getTokenSortedForm(30), donorIndex.getTokenSortedForm(30));
+            assertNotSame(previousIndex.getTokenSortedForm(10), donorIndex.getTokenSortedForm(10));
+        }
+    }
+
+    private Row addRow(Sheet sheet, int rowNumber, String name, Double amount) {
+        Row row = sheet.createRow(rowNumber);
+        row.createCell(3).setCellValue(name);
+        if (amount != null) {
+            row.createCell(6).setCellValue(amount);
+        }
+        return row;
+    }
+}
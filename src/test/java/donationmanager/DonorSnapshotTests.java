@@ -0,0 +1,136 @@
+package donationmanager;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DonorSnapshotTests {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void test_load_donors_from_snapshot() throws IOException {
+        // given
+        File allDonorsFile = this.tempDir.resolve("all-donors.xlsx").toFile();
+        File snapshotDirectory = this.tempDir.resolve("donors").toFile();
+
+        SyntheticDataGenerator generator = new SyntheticDataGenerator();
+        generator.setDonors(300);
+        generator.setDuplicateRate(0.1);
+        List<String> donorNames = generator.writeDonorWorkbook(allDonorsFile);
+
+        DonorSnapshot donorSnapshot = new DonorSnapshot(snapshotDirectory);
+        DonorIndex expectedDonorIndex = donorSnapshot.load(allDonorsFile);
+
+        // when
+        DonorIndex donorIndex = new DonorSnapshot(snapshotDirectory).load(allDonorsFile);
+
+        // then
+        assertEquals(1, snapshotDirectory.listFiles().length);
+        assertNotSame(expectedDonorIndex.getDonorTable(), donorIndex.getDonorTable());
+        assertSameDonors(expectedDonorIndex, donorIndex, donorNames);
+    }
+
+    @Test
+    public void test_load_changed_donors_file() throws IOException {
+        // given
+        File allDonorsFile = this.tempDir.resolve("all-donors.xlsx").toFile();
+        File snapshotDirectory = this.tempDir.resolve("donors").toFile();
+
+        SyntheticDataGenerator generator = new SyntheticDataGenerator();
+        generator.setDonors(300);
+        generator.writeDonorWorkbook(allDonorsFile);
+
+        DonorSnapshot donorSnapshot = new DonorSnapshot(snapshotDirectory);
+        donorSnapshot.load(allDonorsFile);
+
+        generator.setDonors(320);
+        List<String> donorNames = generator.writeDonorWorkbook(allDonorsFile);
+
+        // when
+        DonorIndex donorIndex = donorSnapshot.load(allDonorsFile);
+
+        // then
+        DonorIndex expectedDonorIndex = DonorIndex.of(DonorTable.load(allDonorsFile));
+        assertEquals(320, donorIndex.getDonorTable().getLastRowNumber());
+        assertSameDonors(expectedDonorIndex, donorIndex, donorNames);
+        assertSameDonors(expectedDonorIndex, donorSnapshot.load(allDonorsFile), donorNames);
+    }
+
+    @Test
+    public void test_ignore_corrupt_snapshot() throws IOException {
+        // given
+        File allDonorsFile = this.tempDir.resolve("all-donors.xlsx").toFile();
+        File snapshotDirectory = this.tempDir.resolve("donors").toFile();
+
+        SyntheticDataGenerator generator = new SyntheticDataGenerator();
+        generator.setDonors(100);
+        List<String> donorNames = generator.writeDonorWorkbook(allDonorsFile);
+
+        DonorSnapshot donorSnapshot = new DonorSnapshot(snapshotDirectory);
+        DonorIndex expectedDonorIndex = donorSnapshot.load(allDonorsFile);
+        File snapshotFile = snapshotDirectory.listFiles()[0];
+        try (RandomAccessFile file = new RandomAccessFile(snapshotFile, "rw")) {
+            file.setLength(file.length() / 2);
+        }
+
+        // when
+        DonorIndex donorIndex = donorSnapshot.load(allDonorsFile);
+
+        // then
+        assertSameDonors(expectedDonorIndex, donorIndex, donorNames);
+        // The corrupt snapshot has been replaced
+        Files.write(snapshotFile.toPath(), new byte[]{1, 2, 3});
+        assertSameDonors(expectedDonorIndex, donorSnapshot.load(allDonorsFile), donorNames);
+        assertSameDonors(expectedDonorIndex, donorSnapshot.load(allDonorsFile), donorNames);
+    }
+
+    @Test
+    public void test_load_donors_when_snapshot_cannot_be_written() throws IOException {
+        // given
+        File allDonorsFile = this.tempDir.resolve("all-donors.xlsx").toFile();
+        // A file where the snapshot directory should be, so that no snapshot can be written
+        File snapshotDirectory = this.tempDir.resolve("donors").toFile();
+        Files.writeString(snapshotDirectory.toPath(), "not a directory");
+
+        SyntheticDataGenerator generator = new SyntheticDataGenerator();
+        generator.setDonors(100);
+        List<String> donorNames = generator.writeDonorWorkbook(allDonorsFile);
+
+        // when
+        DonorIndex donorIndex = new DonorSnapshot(snapshotDirectory).load(allDonorsFile);
+
+        // then
+        assertSameDonors(DonorIndex.of(DonorTable.load(allDonorsFile)), donorIndex, donorNames);
+        assertTrue(snapshotDirectory.isFile());
+    }
+
+    private void assertSameDonors(DonorIndex expectedDonorIndex, DonorIndex donorIndex, List<String> donorNames) {
+        DonorTable expectedDonorTable = expectedDonorIndex.getDonorTable();
+        DonorTable donorTable = donorIndex.getDonorTable();
+        assertEquals(expectedDonorTable.getLastRowNumber(), donorTable.getLastRowNumber());
+        for (int i = 0; i <= donorTable.getLastRowNumber(); i++) {
+            assertEquals(expectedDonorTable.hashRow(i), donorTable.hashRow(i));
+        }
+
+        assertEquals(expectedDonorIndex.getEndRowNumber(), donorIndex.getEndRowNumber());
+        for (int i = 1; i < donorIndex.getEndRowNumber(); i++) {
+            assertEquals(expectedDonorIndex.getName(i), donorIndex.getName(i));
+            assertEquals(expectedDonorIndex.getCode(i), donorIndex.getCode(i));
+            assertEquals(expectedDonorIndex.getTokenSortedForm(i), donorIndex.getTokenSortedForm(i));
+        }
+        for (String name : donorNames) {
+            assertEquals(expectedDonorIndex.findExactMatches(name), donorIndex.findExactMatches(name));
+            assertArrayEquals(expectedDonorIndex.findFuzzyCandidates(name, 71),
+                              donorIndex.findFuzzyCandidates(name, 71));
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package donationmanager;
+
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DonorTableTests {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void test_load_cells_of_donors_sheet() throws IOException {
+        // given
+        File allDonorsFile = this.tempDir.resolve("all-donors.xlsx").toFile();
+
+        try (XSSFWorkbook workbook = new XSSFWorkbook();
+             FileOutputStream output = new FileOutputStream(allDonorsFile)) {
+            workbook.createSheet("Other").createRow(0).createCell(0).setCellValue("Not the donors");
+
+            Sheet sheet = workbook.createSheet(DonorTable.DONORS_SHEET_NAME);
+            Row header = sheet.createRow(0);
+            header.createCell(0).setCellValue("Code /");
+            header.createCell(3).setCellValue("Name");
+
+            Row row = sheet.createRow(1);
+            row.createCell(0).setCellValue(1234);
+            row.createCell(2).setBlank();
+            row.createCell(3).setCellValue("Anna Meier");
+            row.createCell(4).setCellValue(true);
+            row.createCell(5).setCellFormula("1+2");
+            row.createCell(6).setCellValue(30.1);
+
+            sheet.createRow(3);
+            sheet.createRow(4).createCell(27).setCellValue("Far out");
+            workbook.setForceFormulaRecalculation(true);
+            workbook.getCreationHelper().createFormulaEvaluator().evaluateAll();
+            workbook.write(output);
+        }
+
+        // when
+        DonorTable donorTable = DonorTable.load(allDonorsFile);
+
+        // then
+        assertEquals(4, donorTable.getLastRowNumber());
+        assertEquals("Code /", donorTable.getStringCellValue(0, 0));
+        assertEquals(4, donorTable.getCellCount(0));
+        assertFalse(donorTable.hasCell(0, 1));
+
+        assertEquals(1234, donorTable.getNumericCellValue(1, 0));
+        assertFalse(donorTable.hasCell(1, 1));
+        assertTrue(donorTable.hasCell(1, 2));
+        assertEquals(CellType.BLANK, donorTable.getCellType(1, 2));
+        assertEquals("", donorTable.getStringCellValue(1, 2));
+        assertEquals("Anna Meier", donorTable.getStringCellValue(1, 3));
+        assertEquals(CellType.BOOLEAN, donorTable.getCellType(1, 4));
+        assertEquals(3, donorTable.getNumericCellValue(1, 5));
+        assertEquals(30.1, donorTable.getNumericCellValue(1, 6));
+        assertThrows(IllegalStateException.class, () -> donorTable.getStringCellValue(1, 6));
+        assertThrows(IllegalStateException.class, () -> donorTable.getNumericCellValue(1, 3));
+
+        assertFalse(donorTable.hasRow(2));
+        assertTrue(donorTable.hasRow(3));
+        assertEquals(0, donorTable.getCellCount(3));
+        assertEquals(28, donorTable.getCellCount(4));
+        assertEquals("Far out", donorTable.getStringCellValue(4, 27));
+    }
+
+    @Test
+    public void test_leave_out_blank_cells_beyond_used_columns() throws IOException {
+        // given
+        File allDonorsFile = this.tempDir.resolve("all-donors.xlsx").toFile();
+
+        try (XSSFWorkbook workbook = new XSSFWorkbook();
+             FileOutputStream output = new FileOutputStream(allDonorsFile)) {
+            Sheet sheet = workbook.createSheet(DonorTable.DONORS_SHEET_NAME);
+            Row header = sheet.createRow(0);
+            header.createCell(0).setCellValue("Code /");
+            header.createCell(3).setCellValue("Name");
+
+            Row row = sheet.createRow(1);
+            row.createCell(0).setCellValue(1234);
+            row.createCell(3).setBlank();
+            row.createCell(5).setBlank();
+            row.createCell(6).setBlank();
+            row.createCell(7).setCellValue("Purpose");
+
+            // XFD12, the last column of a sheet
+            Row formattedRow = sheet.createRow(11);
+            formattedRow.createCell(2).setCellValue("Anna Meier");
+            formattedRow.createCell(4).setBlank();
+            formattedRow.createCell(16383).setBlank();
+            workbook.write(output);
+        }
+
+        // when
+        DonorTable donorTable = DonorTable.load(allDonorsFile);
+
+        // then
+        assertEquals(8, donorTable.getCellCount(1));
+        assertEquals(CellType.BLANK, donorTable.getCellType(1, 3));
+        assertTrue(donorTable.hasCell(1, 5));
+        assertTrue(donorTable.hasCell(1, 6));
+        assertEquals("Purpose", donorTable.getStringCellValue(1, 7));
+
+        assertEquals(5, donorTable.getCellCount(11));
+        assertTrue(donorTable.hasCell(11, 4));
+        assertFalse(donorTable.hasCell(11, 16383));
+    }
+
+    @Test
+    public void test_load_same_cells_as_workbook() throws IOException {
+        // given
+        File allDonorsFile = this.tempDir.resolve("all-donors.xlsx").toFile();
+
+        SyntheticDataGenerator generator = new SyntheticDataGenerator();
+        generator.setDonors(300);
+        generator.setDuplicateRate(0.1);
+        List<String> donorNames = generator.writeDonorWorkbook(allDonorsFile);
+
+        // when
+        DonorTable donorTable = DonorTable.load(allDonorsFile);
+
+        // then
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new FileInputStream(allDonorsFile))) {
+            DonorTable expectedDonorTable = DonorTable.of(workbook.getSheet(DonorTable.DONORS_SHEET_NAME));
+
+            assertEquals(donorNames.size(), donorTable.getLastRowNumber());
+            assertEquals(expectedDonorTable.getLastRowNumber(), donorTable.getLastRowNumber());
+            for (int i = 0; i <= donorTable.getLastRowNumber(); i++) {
+                assertEquals(expectedDonorTable.getCellCount(i), donorTable.getCellCount(i));
+                for (int j = 0; j < donorTable.getCellCount(i); j++) {
+                    CellType cellType = expectedDonorTable.getCellType(i, j);
+                    assertEquals(cellType, donorTable.getCellType(i, j));
+                    if (cellType == CellType.NUMERIC) {
+                        assertEquals(expectedDonorTable.getNumericCellValue(i, j),
+                                     donorTable.getNumericCellValue(i, j));
+                    }
+                    else {
+                        assertEquals(expectedDonorTable.getStringCellValue(i, j),
+                                     donorTable.getStringCellValue(i, j));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void test_inexistent_donors_file() {
+        // given
+        File allDonorsFile = this.tempDir.resolve("inexistent.xlsx").toFile();
+
+        // when then
+        Exception exception = assertThrows(FileNotFoundException.class, () -> DonorTable.load(allDonorsFile));
+        assertEquals(String.format("The file %s does not exist", allDonorsFile), exception.getMessage());
+    }
+}
@@ -0,0 +1,164 @@
+package donationmanager;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DuplicateDetectorTests {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void test_leave_out_transactions_of_overlapping_statements() throws IOException {
+        // given
+        File indexFile = this.tempDir.resolve("transactions.index").toFile();
+
+        TransactionBatch april = new TransactionBatch();
+        april.add("Anna Meier", 5000, TransactionType.CREDIT, LocalDate.of(2023, 4, 28));
+        april.appendMiscText("Spende");
+        april.add("Beat Huber", 2000, TransactionType.CREDIT, LocalDate.of(2023, 4, 30));
+
+        TransactionBatch may = new TransactionBatch();
+        may.add("BEAT  HUBER ", 2000, TransactionType.CREDIT, LocalDate.of(2023, 4, 30));
+        may.add("Anna Meier", 5000, TransactionType.CREDIT, LocalDate.of(2023, 4, 28));
+        may.appendMiscText("Patenschaft Kenia");
+        may.add("Urs Roth", 1000, TransactionType.DEBIT, LocalDate.of(2023, 5, 2));
+
+        // when
+        DuplicateDetector duplicateDetector = DuplicateDetector.load(indexFile);
+        TransactionBatch newAprilTransactions = duplicateDetector.removeDuplicates(april);
+        duplicateDetector.save();
+
+        TransactionBatch newMayTransactions = DuplicateDetector.load(indexFile).removeDuplicates(may);
+
+        // then
+        assertEquals(2, newAprilTransactions.size());
+        assertEquals(2, newMayTransactions.size());
+        // The extra text differs from the one in April, so this is a different transaction
+        assertEquals("Anna Meier", newMayTransactions.getName(0));
+        assertEquals("Urs Roth", newMayTransactions.getName(1));
+    }
+
+    @Test
+    public void test_keep_equal_transactions_within_one_statement() {
+        // given
+        DuplicateDetector duplicateDetector = new DuplicateDetector(this.tempDir.resolve("index").toFile());
+
+        TransactionBatch april = new TransactionBatch();
+        april.add("Anna Meier", 5000, TransactionType.CREDIT, LocalDate.of(2023, 4, 28));
+        april.add("Anna Meier", 5000, TransactionType.CREDIT, LocalDate.of(2023, 4, 28));
+
+        TransactionBatch may = new TransactionBatch();
+        may.add("Anna Meier", 5000, TransactionType.CREDIT, LocalDate.of(2023, 4, 28));
+        may.add("Anna Meier", 5000, TransactionType.CREDIT, LocalDate.of(2023, 4, 28));
+        may.add("Anna Meier", 5000, TransactionType.CREDIT, LocalDate.of(2023, 4, 28));
+
+        // when
+        TransactionBatch newAprilTransactions = duplicateDetector.removeDuplicates(april);
+        TransactionBatch newMayTransactions = duplicateDetector.removeDuplicates(may);
+
+        // then
+        assertEquals(2, newAprilTransactions.size());
+        assertEquals(1, newMayTransactions.size());
+    }
+
+    @Test
+    public void test_keep_imported_transactions_if_asked() throws IOException {
+        // given
+        File indexFile = this.tempDir.resolve("transactions.index").toFile();
+
+        TransactionBatch april = new TransactionBatch();
+        april.add("Anna Meier", 5000, TransactionType.CREDIT, LocalDate.of(2023, 4, 28));
+        april.add("Beat Huber", 2000, TransactionType.CREDIT, LocalDate.of(2023, 4, 30));
+
+        DuplicateDetector duplicateDetector = DuplicateDetector.load(indexFile);
+        duplicateDetector.removeDuplicates(april);
+        duplicateDetector.save();
+
+        // when
+        DuplicateDetector rereadDuplicateDetector = DuplicateDetector.load(indexFile);
+        rereadDuplicateDetector.setKeepImported(true);
+        TransactionBatch rereadTransactions = rereadDuplicateDetector.removeDuplicates(april);
+
+        // then
+        assertEquals(2, rereadTransactions.size());
+        assertEquals(2, rereadDuplicateDetector.size());
+    }
+
+    @Test
+    public void test_find_fingerprints_after_growing() throws IOException {
+        // given
+        final int fingerprintsExpected = 50000;
+        File indexFile = this.tempDir.resolve("transactions.index").toFile();
+        DuplicateDetector duplicateDetector = new DuplicateDetector(indexFile);
+        Random random = new Random(1);
+        long[] fingerprints = new long[fingerprintsExpected];
+        for (int i = 0; i < fingerprintsExpected; i++) {
+            fingerprints[i] = random.nextLong();
+        }
+
+        // when
+        for (long fingerprint : fingerprints) {
+            assertTrue(duplicateDetector.add(fingerprint));
+        }
+        duplicateDetector.save();
+        DuplicateDetector loadedDuplicateDetector = DuplicateDetector.load(indexFile);
+
+        // then
+        assertEquals(fingerprintsExpected, loadedDuplicateDetector.size());
+        for (long fingerprint : fingerprints) {
+            assertTrue(loadedDuplicateDetector.contains(fingerprint));
+            assertFalse(loadedDuplicateDetector.add(fingerprint));
+        }
+        for (int i = 0; i < 1000; i++) {
+            assertFalse(loadedDuplicateDetector.contains(random.nextLong()));
+        }
+    }
+
+    @Test
+    public void test_invalid_index_file_is_treated_like_missing_one() throws IOException {
+        // given
+        File indexFile = this.tempDir.resolve("transactions.index").toFile();
+        Files.writeString(indexFile.toPath(), "not a transaction index");
+
+        TransactionBatch april = new TransactionBatch();
+        april.add("Anna Meier", 5000, TransactionType.CREDIT, LocalDate.of(2023, 4, 28));
+
+        // when
+        DuplicateDetector duplicateDetector = DuplicateDetector.load(indexFile);
+        TransactionBatch newTransactions = duplicateDetector.removeDuplicates(april);
+        duplicateDetector.save();
+
+        // then
+        assertEquals(1, newTransactions.size());
+        assertEquals(1, DuplicateDetector.load(indexFile).size());
+    }
+
+    @Test
+    public void test_no_temporary_file_is_left_if_saving_fails() throws IOException {
+        // given
+        File indexFile = this.tempDir.resolve("transactions.index").toFile();
+        // A non-empty directory can't be replaced by the index
+        Files.createDirectories(indexFile.toPath().resolve("occupied"));
+
+        DuplicateDetector duplicateDetector = new DuplicateDetector(indexFile);
+        duplicateDetector.add(42);
+
+        // when then
+        assertThrows(IOException.class, duplicateDetector::save);
+        try (Stream<Path> files = Files.list(this.tempDir)) {
+            assertEquals(List.of(indexFile.toPath()), files.collect(Collectors.toList()));
+        }
+    }
+}
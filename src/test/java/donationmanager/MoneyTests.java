@@ -0,0 +1,40 @@
+package donationmanager;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MoneyTests {
+    @Test
+    public void test_parse_amount() {
+        // when
+        Money amount = Money.parse("1'234.50");
+
+        // then
+        assertEquals(123450, amount.getCents());
+        assertEquals("1234.50", amount.toString());
+        assertEquals(1234.5, amount.toDouble());
+    }
+
+    @Test
+    public void test_add_amounts_exactly() {
+        // given
+        Money total = Money.ZERO;
+
+        // when
+        for (int i = 0; i < 10; i++) {
+            total = total.plus(Money.parse("0.10"));
+        }
+
+        // then
+        assertEquals(Money.parse("1.00"), total);
+        assertEquals(Money.of(1.0), total);
+    }
+
+    @Test
+    public void test_compare_amounts() {
+        // when then
+        assertTrue(Money.parse("9.95").compareTo(Money.parse("10.00")) < 0);
+        assertEquals("-0.05", Money.parse("9.95").plus(Money.ofCents(-1000)).toString());
+    }
+}
@@ -0,0 +1,73 @@
+package donationmanager;
+
+import org.junit.jupiter.api.Test;
+import technology.tabula.RectangularTextContainer;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StatementTableTests {
+    @Test
+    public void test_read_cells_of_extracted_rows() {
+        // given
+        List<List<RectangularTextContainer>> rows = List.of(List.of(new TextCell("03.04.23"),
+                                                                    new TextCell("Gutschrift Anna Meier"),
+                                                                    new TextCell("03.04.23"),
+                                                                    new TextCell(""),
+                                                                    new TextCell("50.00")),
+                                                            List.of(new TextCell(""), new TextCell("Spende")));
+
+        // when
+        StatementTable table = StatementTable.of(rows);
+
+        // then
+        assertEquals(2, table.size());
+        assertEquals(5, table.getColumnCount());
+        assertEquals("Gutschrift Anna Meier", table.getCell(0, StatementTable.TEXT));
+        assertEquals("50.00", table.getCell(0, StatementTable.CREDIT));
+        assertEquals("Spende", table.getCell(1, StatementTable.TEXT));
+        // The second row is shorter than the table is wide
+        assertEquals("", table.getCell(1, StatementTable.CREDIT));
+        assertEquals("", table.getCell(1, 7));
+        assertThrows(IndexOutOfBoundsException.class, () -> table.getCell(2, StatementTable.DATE));
+    }
+
+    @Test
+    public void test_keep_equal_texts_once() {
+        // given
+        StatementTable table = new StatementTable();
+
+        // when
+        for (int i = 0; i < 1000; i++) {
+            table.addRow(List.of(new TextCell(new String("03.04.23")), new TextCell(new String("Spende"))));
+        }
+
+        // then
+        assertEquals(1000, table.size());
+        assertSame(table.getCell(0, StatementTable.DATE), table.getCell(999, StatementTable.DATE));
+        assertSame(table.getCell(0, StatementTable.TEXT), table.getCell(999, StatementTable.TEXT));
+    }
+
+    @Test
+    public void test_remove_rows_that_have_been_read() {
+        // given
+        StatementTable table = new StatementTable();
+        table.addRow(List.of(new TextCell("03.04.23"), new TextCell("Spende")));
+        table.addRow(List.of(new TextCell(""), new TextCell("Mitteilung")));
+        table.addRow(List.of(new TextCell("04.04.23"), new TextCell("Spende")));
+
+        // when
+        table.removeRowsBefore(2);
+        table.addRow(List.of(new TextCell(""), new TextCell("Zahlung"), new TextCell("04.04.23")));
+
+        // then
+        assertEquals(2, table.size());
+        assertEquals("04.04.23", table.getCell(0, StatementTable.DATE));
+        assertEquals("Spende", table.getCell(0, StatementTable.TEXT));
+        assertEquals("", table.getCell(0, StatementTable.VALUTA));
+        assertEquals("Zahlung", table.getCell(1, StatementTable.TEXT));
+        assertThrows(IndexOutOfBoundsException.class, () -> table.getCell(2, StatementTable.DATE));
+        assertThrows(IndexOutOfBoundsException.class, () -> table.removeRowsBefore(3));
+    }
+}
@@ -0,0 +1,375 @@
+package donationmanager;
+
+import lombok.Setter;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import technology.tabula.RectangularTextContainer;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates bank statements in the AEK layout and workbooks of all known donors, so that tests and benchmarks can run
+ * on inputs of any size without real donor data. The same seed always generates the same data.
+ * <p>
+ * The donors on the statements are drawn from the same donors as in the workbooks. How often their names on the
+ * statements differ from the names in the workbooks is set with the name noise.
+ */
+@Setter
+public class SyntheticDataGenerator {
+    private static final PDType1Font FONT = PDType1Font.HELVETICA;
+    private static final float FONT_SIZE = 9;
+    private static final float PAGE_HEIGHT = PDRectangle.A4.getHeight();
+    private static final float ROW_HEIGHT = 12;
+    // Positions of the columns in the AEK layout. Amounts are right-aligned.
+    private static final float DATE_LEFT = 72;
+    private static final float TEXT_LEFT = 112;
+    private static final float TEXT_MAX_WIDTH = 190;
+    private static final float VALUTA_LEFT = 310;
+    private static final float DEBIT_RIGHT = 415;
+    private static final float CREDIT_RIGHT = 495;
+
+    private static final String[] FIRST_NAMES = {"Anna", "Beat", "Claudia", "Daniel", "Elisabeth", "Fritz", "Gabriela",
+            "Hans", "Irene", "Jürg", "Katharina", "Lukas", "Monika", "Niklaus", "Olivia", "Peter", "Regula", "Stefan",
+            "Therese", "Urs"};
+    private static final String[] LAST_NAMES = {"Ammann", "Baumann", "Brunner", "Bühler", "Fischer", "Frei", "Gerber",
+            "Graf", "Huber", "Keller", "Kälin", "Lehmann", "Meier", "Meyer", "Moser", "Müller", "Schmid", "Schneider",
+            "Steiner", "Weber", "Wyss", "Zimmermann", "Zürcher", "Hofer", "Roth"};
+    private static final String[] SECOND_LAST_NAMES = {"Frei", "Graf", "Roth", "Wyss", "Kunz", "Marti", "Suter", "Bär",
+            "Egli", "Vogt"};
+    private static final String[] PURPOSES = {"Spende", "Patenschaft Äthiopien", "Patenschaft Kenia",
+            "Weihnachtsaktion", "Projekt Wasser", "Dank für Ihre Unterstützung"};
+    private static final String[] TOWNS = {"Bern", "Thun", "Biel", "Burgdorf", "Langenthal", "Spiez", "Interlaken",
+            "Münsingen", "Köniz", "Steffisburg"};
+
+    private long seed = 1826;
+
+    /**
+     * The number of distinct donors the names are drawn from.
+     */
+    private int donors = 1000;
+
+    /**
+     * The share of entries on a statement that are "Postcheckeingang" or "Belast. E-Banking" grouped entries.
+     */
+    private double groupedEntryRate = 0.2;
+
+    /**
+     * The smallest and largest number of transactions in a grouped entry.
+     */
+    private int minGroupedTransactions = 2;
+    private int maxGroupedTransactions = 4;
+
+    /**
+     * The share of entries on a statement that are debits instead of credits.
+     */
+    private double debitRate = 0.1;
+
+    /**
+     * The share of names on statements and transactions that differ from the donor's name in the workbook, by a typo,
+     * swapped first and last name or different capitalization.
+     */
+    private double nameNoise = 0;
+
+    /**
+     * The share of rows in a donor workbook that repeat the name of a donor further up, e.g. for a second sponsorship.
+     */
+    private double duplicateRate = 0;
+
+    /**
+     * Writes a statement with the given number of pages. The entries flow from one page onto the next, so entries at
+     * the bottom of a page are carried over to the top of the next one. The last page ends with the "Saldo per..."
+     * trailer after the last entry that fits completely.
+     *
+     * @param file  The file to write the statement to
+     * @param pages The number of pages
+     * @return the rows of the table of the statement, as the texts of the date, text, valuta, debit and credit cells
+     * @throws IOException if the statement can't be written
+     */
+    public List<String[]> writeStatement(File file, int pages) throws IOException {
+        Random random = new Random(this.seed);
+        List<String[]> table = new ArrayList<>();
+        List<String[]> pendingRows = new ArrayList<>();
+        int entry = 0;
+
+        try (PDDocument document = new PDDocument()) {
+            for (int pageNumber = 1; pageNumber <= pages; pageNumber++) {
+                PDPage page = new PDPage(PDRectangle.A4);
+                document.addPage(page);
+                boolean lastPage = pageNumber == pages;
+
+                try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+                    if (pageNumber == 1) {
+                        writeText(content, DATE_LEFT, 40, "AEK BANK 1826");
+                    }
+                    writeText(content, DATE_LEFT, 200, "Datum Text Valuta Belastung Gutschrift");
+
+                    float top = (pageNumber == 1) ? 405 : 240;
+                    float bottom = lastPage ? 660 : 800;
+                    int capacity = (int) Math.ceil((bottom - ROW_HEIGHT - top) / ROW_HEIGHT);
+
+                    for (int row = 0; row < capacity; row++, top += ROW_HEIGHT) {
+                        if (pendingRows.isEmpty()) {
+                            pendingRows.addAll(makeEntry(random, entry++));
+                            // Entries are only carried over to another page, never cut off by the end of the statement
+                            if (lastPage && pendingRows.size() > capacity - row) {
+                                break;
+                            }
+                        }
+                        String[] cells = pendingRows.remove(0);
+                        writeRow(content, top, cells);
+                        table.add(cells);
+                    }
+
+                    if (lastPage) {
+                        writeText(content, TEXT_LEFT, top, "Saldo per 30.04.23");
+                    }
+                }
+            }
+            document.save(file);
+        }
+        return table;
+    }
+
+    /**
+     * Makes a table like the ones extracted from bank statements, without writing a statement.
+     *
+     * @param rows The number of rows of the table. The last entry may be cut off.
+     * @return the table
+     */
+    public List<List<RectangularTextContainer>> makeTable(int rows) {
+        Random random = new Random(this.seed);
+        List<List<RectangularTextContainer>> table = new ArrayList<>(rows);
+
+        for (int entry = 0; table.size() < rows; entry++) {
+            for (String[] cells : makeEntry(random, entry)) {
+                if (table.size() == rows) {
+                    break;
+                }
+                List<RectangularTextContainer> row = new ArrayList<>(cells.length);
+                for (String cell : cells) {
+                    row.add(new TextCell(cell));
+                }
+                table.add(row);
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Writes a workbook with all known donors, in the layout DonationListMaker expects: a "Code /" header row, the name
+     * in the fourth column and the amount in the seventh.
+     *
+     * @param file The file to write the workbook to
+     * @return the names of the donors, in the order of the rows below the header
+     * @throws IOException if the workbook can't be written
+     */
+    public List<String> writeDonorWorkbook(File file) throws IOException {
+        Random random = new Random(this.seed);
+        List<String> names = new ArrayList<>(this.donors);
+
+        SXSSFWorkbook workbook = new SXSSFWorkbook();
+        try (OutputStream output = new FileOutputStream(file)) {
+            Sheet sheet = workbook.createSheet("ACTIVE DONORS  2022");
+            Row header = sheet.createRow(0);
+            String[] headings = {"Code /", "Title", "Town", "Name", "Category", "Purpose", "Amount"};
+            for (int i = 0; i < headings.length; i++) {
+                header.createCell(i).setCellValue(headings[i]);
+            }
+
+            for (int i = 0; i < this.donors; i++) {
+                int donor = (i > 0 && random.nextDouble() < this.duplicateRate) ? random.nextInt(i) : i;
+                String name = makeName(donor);
+                names.add(name);
+
+                Row row = sheet.createRow(i + 1);
+                row.createCell(0).setCellValue(String.format("D%06d", donor));
+                row.createCell(1).setCellValue(random.nextBoolean() ? "Frau" : "Herr");
+                row.createCell(2).setCellValue(TOWNS[donor % TOWNS.length]);
+                row.createCell(3).setCellValue(name);
+                row.createCell(4).setCellValue("Patenschaft");
+                row.createCell(5).setCellValue(PURPOSES[random.nextInt(PURPOSES.length)]);
+                row.createCell(6).setCellValue(makeAmountInCents(random) / 100.0);
+            }
+            workbook.write(output);
+        }
+        finally {
+            workbook.dispose();
+            workbook.close();
+        }
+        return names;
+    }
+
+    /**
+     * Makes credit transactions from known donors, as TransactionManager would read them from a statement.
+     *
+     * @param transactions The number of transactions
+     * @return the transactions
+     */
+    public List<Transaction> makeCreditTransactions(int transactions) {
+        Random random = new Random(this.seed);
+        List<Transaction> result = new ArrayList<>(transactions);
+
+        for (int i = 0; i < transactions; i++) {
+            String name = addNoise(random, makeName(random.nextInt(this.donors)));
+            Money amount = Money.ofCents(makeAmountInCents(random));
+            LocalDate date = LocalDate.of(2023, 4, 3);
+            result.add(new Transaction(name, amount, TransactionType.CREDIT, date, List.of("Spende")));
+        }
+        return result;
+    }
+
+    /**
+     * Makes the name of a donor. The same donor always has the same name, and different donors have different names.
+     *
+     * @param donor The number of the donor
+     * @return the name of the donor
+     */
+    public String makeName(int donor) {
+        String firstName = FIRST_NAMES[donor % FIRST_NAMES.length];
+        int rest = donor / FIRST_NAMES.length;
+        String lastName = LAST_NAMES[rest % LAST_NAMES.length];
+        rest /= LAST_NAMES.length;
+
+        if (rest == 0) {
+            return firstName + " " + lastName;
+        }
+        rest--;
+        String initial = (char) ('A' + rest % 26) + ".";
+        rest /= 26;
+
+        if (rest == 0) {
+            return firstName + " " + initial + " " + lastName;
+        }
+        String secondLastName = SECOND_LAST_NAMES[(rest - 1) % SECOND_LAST_NAMES.length];
+        return firstName + " " + initial + " " + lastName + "-" + secondLastName;
+    }
+
+    /**
+     * Makes the rows of one entry of a statement: either a single entry with one to three rows of extra text, or a
+     * grouped entry with several transactions, each followed by a row of extra text.
+     */
+    private List<String[]> makeEntry(Random random, int entry) {
+        List<String[]> rows = new ArrayList<>();
+        String date = String.format("%02d.04.23", entry % 28 + 1);
+        boolean debit = random.nextDouble() < this.debitRate;
+
+        if (random.nextDouble() < this.groupedEntryRate) {
+            int transactions = this.minGroupedTransactions
+                    + random.nextInt(this.maxGroupedTransactions - this.minGroupedTransactions + 1);
+            long totalInCents = 0;
+            for (int i = 0; i < transactions; i++) {
+                long amountInCents = makeAmountInCents(random);
+                totalInCents += amountInCents;
+                rows.add(makeRow("", makeDonorName(random) + " " + formatAmount(amountInCents), "", "", ""));
+                rows.add(makeRow("", PURPOSES[random.nextInt(PURPOSES.length)], "", "", ""));
+            }
+
+            String total = formatAmount(totalInCents);
+            rows.add(0, debit ? makeRow(date, "Belast. E-Banking", date, total, "")
+                              : makeRow(date, "Postcheckeingang", date, "", total));
+        }
+        else {
+            String amount = formatAmount(makeAmountInCents(random));
+            rows.add(debit ? makeRow(date, "Zahlung " + makeDonorName(random), date, amount, "")
+                           : makeRow(date, "Gutschrift " + makeDonorName(random), date, "", amount));
+
+            int extraRows = 1 + random.nextInt(3);
+            for (int i = 0; i < extraRows; i++) {
+                rows.add(makeRow("", PURPOSES[random.nextInt(PURPOSES.length)], "", "", ""));
+            }
+        }
+        return rows;
+    }
+
+    private String makeDonorName(Random random) {
+        return addNoise(random, makeName(random.nextInt(this.donors)));
+    }
+
+    /**
+     * Changes a name the way names on statements tend to differ from the names in the workbook.
+     */
+    private String addNoise(Random random, String name) {
+        if (random.nextDouble() >= this.nameNoise) {
+            return name;
+        }
+
+        switch (random.nextInt(3)) {
+            case 0:
+                // Typo: one letter dropped
+                int position = 1 + random.nextInt(name.length() - 2);
+                return name.substring(0, position) + name.substring(position + 1);
+            case 1:
+                // Last name first
+                int space = name.lastIndexOf(' ');
+                return name.substring(space + 1) + " " + name.substring(0, space);
+            default:
+                return name.toUpperCase();
+        }
+    }
+
+    /**
+     * Makes an amount between 5.00 and 2'000.00 in steps of 50 cents, so that the amounts of a grouped entry add up to
+     * its total exactly, even as doubles.
+     */
+    private long makeAmountInCents(Random random) {
+        return 500 + 50L * random.nextInt(3991);
+    }
+
+    private String formatAmount(long cents) {
+        String francs = String.valueOf(cents / 100);
+        StringBuilder formatted = new StringBuilder();
+        for (int i = 0; i < francs.length(); i++) {
+            if (i > 0 && (francs.length() - i) % 3 == 0) {
+                formatted.append('\'');
+            }
+            formatted.append(francs.charAt(i));
+        }
+        return formatted + String.format(".%02d", cents % 100);
+    }
+
+    private String[] makeRow(String date, String text, String valuta, String debit, String credit) {
+        return new String[]{date, text, valuta, debit, credit};
+    }
+
+    private void writeRow(PDPageContentStream content, float top, String[] cells) throws IOException {
+        if (FONT.getStringWidth(cells[1]) / 1000 * FONT_SIZE > TEXT_MAX_WIDTH) {
+            throw new IllegalStateException(String.format("The text %s is too wide for its column", cells[1]));
+        }
+
+        writeText(content, DATE_LEFT, top, cells[0]);
+        writeText(content, TEXT_LEFT, top, cells[1]);
+        writeText(content, VALUTA_LEFT, top, cells[2]);
+        writeRightAlignedText(content, DEBIT_RIGHT, top, cells[3]);
+        writeRightAlignedText(content, CREDIT_RIGHT, top, cells[4]);
+    }
+
+    private void writeText(PDPageContentStream content, float left, float top, String text) throws IOException {
+        if (text.isEmpty()) {
+            return;
+        }
+        content.beginText();
+        content.setFont(FONT, FONT_SIZE);
+        content.newLineAtOffset(left, PAGE_HEIGHT - top - FONT_SIZE);
+        content.showText(text);
+        content.endText();
+    }
+
+    private void writeRightAlignedText(PDPageContentStream content, float right, float top, String text)
+            throws IOException {
+        float width = FONT.getStringWidth(text) / 1000 * FONT_SIZE;
+        writeText(content, right - width, top, text);
+    }
+}
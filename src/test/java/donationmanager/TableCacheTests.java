@@ -0,0 +1,113 @@
+package donationmanager;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import technology.tabula.RectangularTextContainer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TableCacheTests {
+    @Test
+    public void test_cached_table_matches_extracted_table(@TempDir Path tempDir) throws IOException {
+        // given
+        File bankStatement = tempDir.resolve("bank-statement.pdf").toFile();
+        new SyntheticDataGenerator().writeStatement(bankStatement, 3);
+        TableCache tableCache = new TableCache(tempDir.resolve("cache").toFile(), 1024 * 1024);
+
+        BankStatementReader firstReader = new BankStatementReader(bankStatement);
+        firstReader.setTableCache(tableCache);
+        BankStatementReader secondReader = new BankStatementReader(bankStatement);
+        secondReader.setTableCache(tableCache);
+
+        // when
+        List<List<RectangularTextContainer>> extractedTable = firstReader.extractTable();
+        List<List<RectangularTextContainer>> cachedTable = secondReader.extractTable();
+
+        // then
+        assertEquals(extractedTable.size(), cachedTable.size());
+        for (int i = 0; i < extractedTable.size(); i++) {
+            assertEquals(extractedTable.get(i).size(), cachedTable.get(i).size());
+            for (int j = 0; j < extractedTable.get(i).size(); j++) {
+                assertEquals(extractedTable.get(i).get(j).getText(), cachedTable.get(i).get(j).getText());
+            }
+        }
+    }
+
+    @Test
+    public void test_table_is_returned_if_cache_cannot_be_written(@TempDir Path tempDir) throws IOException {
+        // given
+        File bankStatement = tempDir.resolve("bank-statement.pdf").toFile();
+        int tableSizeExpected = new SyntheticDataGenerator().writeStatement(bankStatement, 2).size();
+        // A file where the cache directory should be, so that no table can be stored
+        File cacheDirectory = tempDir.resolve("cache").toFile();
+        Files.writeString(cacheDirectory.toPath(), "not a directory");
+
+        BankStatementReader bankStatementReader = new BankStatementReader(bankStatement);
+        bankStatementReader.setTableCache(new TableCache(cacheDirectory, 1024 * 1024));
+
+        // when
+        List<List<RectangularTextContainer>> table = bankStatementReader.extractTable();
+
+        // then
+        assertEquals(tableSizeExpected, table.size());
+        assertTrue(cacheDirectory.isFile());
+    }
+
+    @Test
+    public void test_changed_extraction_parameters_miss_the_cache(@TempDir Path tempDir) throws IOException {
+        // given
+        File bankStatement = tempDir.resolve("bank-statement.pdf").toFile();
+        new SyntheticDataGenerator().writeStatement(bankStatement, 1);
+        TableCache tableCache = new TableCache(tempDir.resolve("cache").toFile(), 1024 * 1024);
+
+        String oldKey = TableCache.makeKey(bankStatement, "old parameters");
+        String newKey = TableCache.makeKey(bankStatement, "new parameters");
+
+        // when
+        tableCache.store(oldKey, new BankStatementReader(bankStatement).extractTable());
+
+        // then
+        assertNotEquals(oldKey, newKey);
+        assertTrue(tableCache.load(oldKey).isPresent());
+        assertFalse(tableCache.load(newKey).isPresent());
+    }
+
+    @Test
+    public void test_least_recently_used_table_is_evicted(@TempDir Path tempDir) throws IOException {
+        // given
+        File cacheDirectory = tempDir.resolve("cache").toFile();
+        File bankStatement = tempDir.resolve("bank-statement.pdf").toFile();
+        new SyntheticDataGenerator().writeStatement(bankStatement, 1);
+        List<List<RectangularTextContainer>> table = new BankStatementReader(bankStatement).extractTable();
+
+        TableCache unboundedCache = new TableCache(cacheDirectory, Long.MAX_VALUE);
+        unboundedCache.store("first", table);
+        long entryBytes = Files.size(cacheDirectory.toPath().resolve("first.table"));
+
+        TableCache tableCache = new TableCache(cacheDirectory, 2 * entryBytes + 64);
+        tableCache.store("second", table);
+        setLastUsed(cacheDirectory, "first", 1_000_000L);
+        setLastUsed(cacheDirectory, "second", 2_000_000L);
+
+        // when
+        Optional<List<List<RectangularTextContainer>>> firstTable = tableCache.load("first");
+        tableCache.store("third", table);
+
+        // then
+        assertTrue(firstTable.isPresent());
+        assertTrue(tableCache.load("first").isPresent());
+        assertFalse(tableCache.load("second").isPresent());
+        assertTrue(tableCache.load("third").isPresent());
+    }
+
+    private void setLastUsed(File cacheDirectory, String key, long time) {
+        assertTrue(new File(cacheDirectory, key + ".table").setLastModified(time));
+    }
+}
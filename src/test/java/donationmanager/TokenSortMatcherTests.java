@@ -0,0 +1,63 @@
+package donationmanager;
+
+import me.xdrop.fuzzywuzzy.FuzzySearch;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TokenSortMatcherTests {
+    @Test
+    public void test_score_like_token_sort_ratio() {
+        // given
+        List<String[]> names = List.of(new String[]{"Anna Meier", "Meier Anna"},
+                                       new String[]{"Anna Meier", "Ana Meier"},
+                                       new String[]{"Müller-Lüdenscheidt, Hans-Jörg", "Hans Jörg Mueller"},
+                                       new String[]{"ANNA MEIER", "anna meier"},
+                                       new String[]{"", "Anna Meier"},
+                                       new String[]{"", ""},
+                                       new String[]{"-", "x"});
+
+        for (String[] pair : names) {
+            // when
+            int score = TokenSortMatcher.tokenSortRatio(pair[0], pair[1]);
+
+            // then
+            assertEquals(FuzzySearch.tokenSortRatio(pair[0], pair[1]), score, String.join(" / ", pair));
+        }
+    }
+
+    @Test
+    public void test_score_random_names_of_any_length() {
+        // given
+        Random random = new Random(19);
+        String alphabet = "abcde xyzäöü-.";
+
+        for (int i = 0; i < 5000; i++) {
+            String first = makeRandomName(random, alphabet, random.nextInt(i % 10 == 0 ? 200 : 30));
+            String second = makeRandomName(random, alphabet, random.nextInt(i % 10 == 0 ? 200 : 30));
+            int minimumScore = random.nextInt(101);
+
+            // when
+            TokenSortMatcher matcher = new TokenSortMatcher(first);
+            String form = TokenSortMatcher.makeTokenSortedForm(second);
+            int score = matcher.score(form);
+            int scoreAboveMinimum = matcher.score(form, minimumScore);
+
+            // then
+            int scoreExpected = FuzzySearch.tokenSortRatio(first, second);
+            assertEquals(scoreExpected, score, first + " / " + second);
+            assertEquals(scoreExpected >= minimumScore ? scoreExpected : -1, scoreAboveMinimum, first + " / " + second);
+        }
+    }
+
+    private String makeRandomName(Random random, String alphabet, int length) {
+        StringBuilder name = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            name.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return name.toString();
+    }
+}
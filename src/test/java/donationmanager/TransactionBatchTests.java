@@ -0,0 +1,109 @@
+package donationmanager;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TransactionBatchTests {
+    @Test
+    public void test_add_transactions_with_misc_text() {
+        // given
+        TransactionBatch batch = new TransactionBatch();
+
+        // when
+        batch.add("Anna Meier", 5000, TransactionType.CREDIT, LocalDate.of(2023, 4, 3));
+        batch.appendMiscText("Spende");
+        batch.appendMiscText("Patenschaft Kenia");
+        batch.add("Zahlung Beat Huber", 120000, TransactionType.DEBIT, null);
+
+        // then
+        assertEquals(2, batch.size());
+
+        assertEquals("Anna Meier", batch.getName(0));
+        assertEquals(5000, batch.getCents(0));
+        assertEquals(Money.parse("50.00"), batch.getAmount(0));
+        assertEquals(TransactionType.CREDIT, batch.getTransactionType(0));
+        assertEquals(LocalDate.of(2023, 4, 3), batch.getDate(0));
+        assertEquals(List.of("Spende", "Patenschaft Kenia"), batch.getMiscText(0));
+
+        assertEquals(TransactionType.DEBIT, batch.getTransactionType(1));
+        assertNull(batch.getDate(1));
+        assertEquals(List.of(), batch.getMiscText(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> batch.getName(2));
+    }
+
+    @Test
+    public void test_append_misc_text_to_empty_batch() {
+        // given
+        TransactionBatch batch = new TransactionBatch();
+
+        // when then
+        assertThrows(IllegalStateException.class, () -> batch.appendMiscText("Spende"));
+    }
+
+    @Test
+    public void test_convert_between_batch_and_transactions() {
+        // given
+        List<Transaction> transactions = List.of(new Transaction("Anna Meier",
+                                                                 Money.parse("20.00"),
+                                                                 TransactionType.CREDIT,
+                                                                 LocalDate.of(2023, 4, 5),
+                                                                 List.of("Spende")),
+                                                 new Transaction("Beat Huber",
+                                                                 Money.parse("50.00"),
+                                                                 TransactionType.CREDIT,
+                                                                 LocalDate.of(2023, 4, 5),
+                                                                 List.of()),
+                                                 new Transaction("Urs Roth",
+                                                                 Money.parse("10.00"),
+                                                                 TransactionType.DEBIT,
+                                                                 null,
+                                                                 List.of("Miete", "April")));
+
+        // when
+        TransactionBatch batch = new TransactionBatch();
+        batch.addAll(TransactionBatch.of(transactions.subList(0, 1)));
+        batch.addAll(TransactionBatch.of(transactions.subList(1, 3)));
+        List<Transaction> result = batch.toList();
+
+        // then
+        assertEquals(transactions.size(), result.size());
+        for (int i = 0; i < transactions.size(); i++) {
+            assertEquals(transactions.get(i).getName(), result.get(i).getName());
+            assertEquals(transactions.get(i).getAmount(), result.get(i).getAmount());
+            assertEquals(transactions.get(i).getTransactionType(), result.get(i).getTransactionType());
+            assertEquals(transactions.get(i).getDate(), result.get(i).getDate());
+            assertEquals(transactions.get(i).getMiscText(), result.get(i).getMiscText());
+        }
+    }
+
+    @Test
+    public void test_grow_beyond_initial_capacity() {
+        // given
+        final int transactionsExpected = 1000;
+        TransactionBatch batch = new TransactionBatch();
+
+        // when
+        for (int i = 0; i < transactionsExpected; i++) {
+            batch.add("Donor " + i, i, TransactionType.CREDIT, LocalDate.of(2023, 4, 1).plusDays(i));
+            for (int line = 0; line < i % 3; line++) {
+                batch.appendMiscText("Line " + line + " of " + i);
+            }
+        }
+
+        // then
+        assertEquals(transactionsExpected, batch.size());
+        for (int i = 0; i < transactionsExpected; i++) {
+            assertEquals("Donor " + i, batch.getName(i));
+            assertEquals(i, batch.getCents(i));
+            assertEquals(LocalDate.of(2023, 4, 1).plusDays(i), batch.getDate(i));
+            assertEquals(i % 3, batch.getMiscText(i).size());
+            if (i % 3 > 0) {
+                assertEquals("Line 0 of " + i, batch.getMiscText(i).get(0));
+            }
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package donationmanager;
+
+import org.junit.jupiter.api.Test;
+import technology.tabula.RectangularTextContainer;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TransactionManagerTests {
+    @Test
+    public void test_make_transactions_from_single_entries() {
+        // given
+        List<List<RectangularTextContainer>> table = List.of(makeRow("03.04.23", "Gutschrift Anna Meier", "", "50.00"),
+                                                             makeRow("", "Spende", "", ""),
+                                                             makeRow("", "Patenschaft Kenia", "", ""),
+                                                             makeRow("04.04.23", "Zahlung Beat Huber", "1'200.00", ""));
+        TransactionManager transactionManager = new TransactionManager(table);
+
+        // when
+        List<Transaction> transactions = transactionManager.makeTransactionList();
+
+        // then
+        assertEquals(2, transactions.size());
+
+        assertEquals("Anna Meier", transactions.get(0).getName());
+        assertEquals(Money.parse("50.00"), transactions.get(0).getAmount());
+        assertEquals(TransactionType.CREDIT, transactions.get(0).getTransactionType());
+        assertEquals(LocalDate.of(2023, 4, 3), transactions.get(0).getDate());
+        assertEquals(List.of("Spende", "Patenschaft Kenia"), transactions.get(0).getMiscText());
+
+        assertEquals("Zahlung Beat Huber", transactions.get(1).getName());
+        assertEquals(Money.parse("1200.00"), transactions.get(1).getAmount());
+        assertEquals(TransactionType.DEBIT, transactions.get(1).getTransactionType());
+        assertEquals(List.of(), transactions.get(1).getMiscText());
+    }
+
+    @Test
+    public void test_make_transactions_from_grouped_entry() {
+        // given
+        List<List<RectangularTextContainer>> table = List.of(makeRow("05.04.23", "Postcheckeingang", "", "70.00"),
+                                                             makeRow("", "Anna Meier 20.00", "", ""),
+                                                             makeRow("", "Spende", "", ""),
+                                                             makeRow("", "Beat Huber 50.00", "", ""),
+                                                             makeRow("", "Patenschaft Kenia", "", ""),
+                                                             makeRow("06.04.23", "Gutschrift Urs Roth", "", "10.00"));
+        TransactionManager transactionManager = new TransactionManager(table);
+
+        // when
+        List<Transaction> transactions = transactionManager.makeTransactionList();
+
+        // then
+        assertEquals(3, transactions.size());
+
+        assertEquals("Anna Meier", transactions.get(0).getName().trim());
+        assertEquals(Money.parse("20.00"), transactions.get(0).getAmount());
+        assertEquals(TransactionType.CREDIT, transactions.get(0).getTransactionType());
+        assertEquals(LocalDate.of(2023, 4, 5), transactions.get(0).getDate());
+        assertEquals(List.of("Spende"), transactions.get(0).getMiscText());
+
+        assertEquals("Beat Huber", transactions.get(1).getName().trim());
+        assertEquals(Money.parse("50.00"), transactions.get(1).getAmount());
+        assertEquals(LocalDate.of(2023, 4, 5), transactions.get(1).getDate());
+        assertEquals(List.of("Patenschaft Kenia"), transactions.get(1).getMiscText());
+
+        assertEquals("Urs Roth", transactions.get(2).getName());
+    }
+
+    @Test
+    public void test_skip_grouped_entry_not_adding_up_to_total() {
+        // given
+        List<List<RectangularTextContainer>> table = List.of(makeRow("05.04.23", "Belast. E-Banking", "80.00", ""),
+                                                             makeRow("", "Anna Meier 20.00", "", ""),
+                                                             makeRow("", "Spende", "", ""),
+                                                             makeRow("", "Beat Huber 50.00", "", ""),
+                                                             makeRow("", "Spende", "", ""),
+                                                             makeRow("06.04.23", "Gutschrift Urs Roth", "", "10.00"));
+        TransactionManager transactionManager = new TransactionManager(table);
+
+        // when
+        List<Transaction> transactions = transactionManager.makeTransactionList();
+
+        // then
+        assertEquals(1, transactions.size());
+        assertEquals("Urs Roth", transactions.get(0).getName());
+    }
+
+    @Test
+    public void test_grouped_entry_adding_up_to_total_in_cents() {
+        // given
+        List<List<RectangularTextContainer>> table = List.of(makeRow("05.04.23", "Postcheckeingang", "", "0.30"),
+                                                             makeRow("", "Anna Meier 0.10", "", ""),
+                                                             makeRow("", "Spende", "", ""),
+                                                             makeRow("", "Beat Huber 0.20", "", ""),
+                                                             makeRow("", "Spende", "", ""));
+        TransactionManager transactionManager = new TransactionManager(table);
+
+        // when
+        List<Transaction> transactions = transactionManager.makeTransactionList();
+
+        // then
+        assertEquals(2, transactions.size());
+        assertEquals(Money.ofCents(10), transactions.get(0).getAmount());
+        assertEquals(Money.ofCents(20), transactions.get(1).getAmount());
+    }
+
+    @Test
+    public void test_last_row_of_grouped_entry_is_not_a_transaction() {
+        // given
+        List<List<RectangularTextContainer>> table = List.of(makeRow("05.04.23", "Postcheckeingang", "", "20.00"),
+                                                             makeRow("", "Anna Meier 20.00", "", ""),
+                                                             makeRow("", "Beat Huber 50.00", "", ""),
+                                                             makeRow("06.04.23", "Gutschrift Urs Roth", "", "10.00"));
+        TransactionManager transactionManager = new TransactionManager(table);
+
+        // when
+        List<Transaction> transactions = transactionManager.makeTransactionList();
+
+        // then
+        assertEquals(2, transactions.size());
+        assertEquals("Anna Meier", transactions.get(0).getName().trim());
+        assertEquals(List.of(), transactions.get(0).getMiscText());
+        assertEquals("Urs Roth", transactions.get(1).getName());
+    }
+
+    @Test
+    public void test_grouped_entry_without_total() {
+        // given
+        List<List<RectangularTextContainer>> table = List.of(makeRow("05.04.23", "Postcheckeingang", "", ""),
+                                                             makeRow("", "Anna Meier 20.00", "", ""),
+                                                             makeRow("", "Spende", "", ""));
+        TransactionManager transactionManager = new TransactionManager(table);
+
+        // when then
+        Exception exception = assertThrows(RuntimeException.class, transactionManager::makeTransactionList);
+
+        String messageExpected = "No total amount was found in grouped entry.";
+
+        assertEquals(messageExpected, exception.getMessage());
+    }
+
+    @Test
+    public void test_parse_dates_of_bank_statement() {
+        // when then
+        assertEquals(LocalDate.of(2023, 4, 3), TransactionManager.parseDate("03.04.23"));
+        assertEquals(LocalDate.of(2024, 2, 29), TransactionManager.parseDate(" 29.02.24 "));
+        assertNull(TransactionManager.parseDate("29.02.23"));
+        assertNull(TransactionManager.parseDate("3.4.2023"));
+        assertNull(TransactionManager.parseDate("Datum"));
+        assertNull(TransactionManager.parseDate(""));
+    }
+
+    @Test
+    public void test_make_transactions_from_large_grouped_entry() {
+        // given
+        final int transactionsExpected = 5000;
+        SyntheticDataGenerator generator = new SyntheticDataGenerator();
+        generator.setGroupedEntryRate(1);
+        generator.setMinGroupedTransactions(transactionsExpected);
+        generator.setMaxGroupedTransactions(transactionsExpected);
+        List<List<RectangularTextContainer>> table = generator.makeTable(2 * transactionsExpected + 1);
+        TransactionManager transactionManager = new TransactionManager(table);
+
+        // when
+        List<Transaction> transactions = transactionManager.makeTransactionList();
+
+        // then
+        assertEquals(transactionsExpected, transactions.size());
+        for (int i = 0; i < transactionsExpected; i++) {
+            assertEquals(LocalDate.of(2023, 4, 1), transactions.get(i).getDate());
+            assertEquals(List.of(table.get(2 * i + 2).get(1).getText()), transactions.get(i).getMiscText());
+        }
+    }
+
+    @Test
+    public void test_parallel_parsing_matches_sequential_parsing() {
+        // given
+        SyntheticDataGenerator generator = new SyntheticDataGenerator();
+        generator.setGroupedEntryRate(0.5);
+        generator.setDebitRate(0.3);
+        List<List<RectangularTextContainer>> table = generator.makeTable(2000);
+
+        // when
+        List<Transaction> sequentialTransactions = new TransactionManager(table).makeTransactionList();
+        for (int parallelism : new int[]{2, 3, 64, 2000}) {
+            TransactionManager parallelManager = new TransactionManager(table);
+            parallelManager.setParallelism(parallelism);
+            List<Transaction> parallelTransactions = parallelManager.makeTransactionList();
+
+            // then
+            assertEquals(sequentialTransactions.size(), parallelTransactions.size());
+            for (int i = 0; i < sequentialTransactions.size(); i++) {
+                Transaction sequentialTransaction = sequentialTransactions.get(i);
+                Transaction parallelTransaction = parallelTransactions.get(i);
+
+                assertEquals(sequentialTransaction.getName(), parallelTransaction.getName());
+                assertEquals(sequentialTransaction.getAmount(), parallelTransaction.getAmount());
+                assertEquals(sequentialTransaction.getTransactionType(), parallelTransaction.getTransactionType());
+                assertEquals(sequentialTransaction.getDate(), parallelTransaction.getDate());
+                assertEquals(sequentialTransaction.getMiscText(), parallelTransaction.getMiscText());
+            }
+        }
+    }
+
+    @Test
+    public void test_read_streamed_rows_like_whole_table() {
+        // given
+        SyntheticDataGenerator generator = new SyntheticDataGenerator();
+        generator.setGroupedEntryRate(0.5);
+        generator.setDebitRate(0.3);
+        List<List<RectangularTextContainer>> table = new ArrayList<>();
+        // Rows before the first entry don't belong to any transaction
+        table.add(makeRow("", "Übertrag", "", ""));
+        table.addAll(generator.makeTable(2000));
+
+        // when
+        List<Transaction> expectedTransactions = new TransactionManager(table).makeTransactionList();
+        List<Transaction> streamedTransactions = TransactionManager.readTransactions(table.stream()).toList();
+
+        // then
+        assertEquals(expectedTransactions.size(), streamedTransactions.size());
+        for (int i = 0; i < expectedTransactions.size(); i++) {
+            Transaction expectedTransaction = expectedTransactions.get(i);
+            Transaction streamedTransaction = streamedTransactions.get(i);
+
+            assertEquals(expectedTransaction.getName(), streamedTransaction.getName());
+            assertEquals(expectedTransaction.getAmount(), streamedTransaction.getAmount());
+            assertEquals(expectedTransaction.getTransactionType(), streamedTransaction.getTransactionType());
+            assertEquals(expectedTransaction.getDate(), streamedTransaction.getDate());
+            assertEquals(expectedTransaction.getMiscText(), streamedTransaction.getMiscText());
+        }
+    }
+
+    private List<RectangularTextContainer> makeRow(String date, String text, String debit, String credit) {
+        List<RectangularTextContainer> row = new ArrayList<>();
+        row.add(new TextCell(date));
+        row.add(new TextCell(text));
+        row.add(new TextCell(""));
+        row.add(new TextCell(debit));
+        row.add(new TextCell(credit));
+        return row;
+    }
+}